@@ -17,8 +17,6 @@
  */
 package net.flexmojos.oss.plugin;
 
-import static ch.lambdaj.Lambda.filter;
-import static ch.lambdaj.Lambda.selectFirst;
 import static org.hamcrest.CoreMatchers.allOf;
 import static org.hamcrest.CoreMatchers.anyOf;
 import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.artifactId;
@@ -45,6 +43,7 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.ArrayUtils;
@@ -64,22 +63,28 @@ import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.project.MavenProjectHelper;
 import org.apache.maven.repository.RepositorySystem;
-import org.codehaus.plexus.archiver.UnArchiver;
 import org.codehaus.plexus.archiver.manager.ArchiverManager;
 import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.InterpolationFilterReader;
+import org.codehaus.plexus.util.StringUtils;
 import org.hamcrest.Matcher;
 import org.mockito.invocation.InvocationOnMock;
 import org.mockito.stubbing.Answer;
 import net.flexmojos.oss.compatibilitykit.VersionUtils;
 import net.flexmojos.oss.compiler.command.Result;
+import net.flexmojos.oss.matcher.artifact.ArtifactIndex;
 import net.flexmojos.oss.plugin.common.flexbridge.MavenLogger;
 import net.flexmojos.oss.plugin.common.flexbridge.MavenPathResolver;
 import net.flexmojos.oss.plugin.compiler.attributes.MavenRuntimeException;
 import net.flexmojos.oss.plugin.compiler.lazyload.Cacheable;
 import net.flexmojos.oss.plugin.compiler.lazyload.NotCacheable;
+import net.flexmojos.oss.plugin.utilities.ArtifactResolutionCache;
+import net.flexmojos.oss.plugin.utilities.ArtifactUnpacker;
+import net.flexmojos.oss.plugin.utilities.DirectorySnapshot;
+import net.flexmojos.oss.plugin.utilities.FlexToolchainRegistry;
+import net.flexmojos.oss.plugin.utilities.LoadExternsMerger;
 import net.flexmojos.oss.plugin.utilities.MavenUtils;
 import net.flexmojos.oss.util.PathUtil;
 
@@ -132,7 +137,7 @@ public abstract class AbstractMavenMojo
      */
     private File basedir;
 
-    protected Map<String, Object> cache = new LinkedHashMap<String, Object>();
+    protected Map<String, Object> cache = Collections.synchronizedMap( new LinkedHashMap<String, Object>() );
 
     /**
      * The maven configuration directory
@@ -235,6 +240,13 @@ public abstract class AbstractMavenMojo
      */
     protected RepositorySystem repositorySystem;
 
+    /**
+     * Number of artifacts resolved concurrently when a goal needs several at once
+     * 
+     * @parameter default-value="4" expression="${flexmojos.resolution.threads}"
+     */
+    protected int resolutionThreads;
+
     /**
      * The maven resources
      * 
@@ -358,7 +370,7 @@ public abstract class AbstractMavenMojo
             {
                 for ( File dir : directories )
                 {
-                    includedFiles.addAll( Arrays.asList( scan( pattern, dir ).getIncludedFiles() ) );
+                    includedFiles.addAll( Arrays.asList( scanSnapshot( pattern, dir ) ) );
                 }
             }
             else
@@ -370,7 +382,7 @@ public abstract class AbstractMavenMojo
                         + dir.getAbsolutePath() );
                 }
 
-                includedFiles.addAll( Arrays.asList( scan( pattern, dir ).getIncludedFiles() ) );
+                includedFiles.addAll( Arrays.asList( scanSnapshot( pattern, dir ) ) );
             }
         }
 
@@ -395,8 +407,7 @@ public abstract class AbstractMavenMojo
             {
                 for ( File dir : directories )
                 {
-                    DirectoryScanner scan = scan( pattern, dir );
-                    includedFiles.addAll( PathUtil.files( scan.getIncludedFiles(), dir ) );
+                    includedFiles.addAll( PathUtil.files( scanSnapshot( pattern, dir ), dir ) );
                 }
             }
             else
@@ -408,7 +419,7 @@ public abstract class AbstractMavenMojo
                         + dir.getAbsolutePath() );
                 }
 
-                includedFiles.addAll( PathUtil.files( scan( pattern, dir ).getIncludedFiles(), dir ) );
+                includedFiles.addAll( PathUtil.files( scanSnapshot( pattern, dir ), dir ) );
             }
         }
 
@@ -469,16 +480,22 @@ public abstract class AbstractMavenMojo
         return Collections.unmodifiableSet( project.getArtifacts() );
     }
 
-    protected Set<Artifact> getDependencies( Matcher<? extends Artifact>... matchers )
+    /**
+     * Index over {@link #getDependencies()}, cached alongside it
+     */
+    protected ArtifactIndex getDependencyIndex()
     {
-        Set<Artifact> dependencies = getDependencies();
+        return new ArtifactIndex( getDependencies() );
+    }
 
-        return new LinkedHashSet<Artifact>( filter( allOf( matchers ), dependencies ) );
+    protected Set<Artifact> getDependencies( Matcher<? extends Artifact>... matchers )
+    {
+        return getDependencyIndex().select( matchers );
     }
 
     protected Artifact getDependency( Matcher<? extends Artifact>... matchers )
     {
-        return selectFirst( getDependencies(), allOf( matchers ) );
+        return getDependencyIndex().selectFirst( matchers );
     }
 
     @SuppressWarnings( "unchecked" )
@@ -644,42 +661,38 @@ public abstract class AbstractMavenMojo
         Artifact artifact = resolve( groupId, artifactId, version, classifier, type );
 
         String dirName = ( classifier == null ? "" : classifier ) + "_" + type;
-
-        File dir = new File( artifact.getFile().getParentFile(), dirName );
-        if ( dir.isDirectory() )
-        {
-            return dir;
-        }
-
-        dir.mkdirs();
-
         try
         {
-            UnArchiver unarchive = archiverManager.getUnArchiver( artifact.getFile() );
-            unarchive.setSourceFile( artifact.getFile() );
-            unarchive.setDestDirectory( dir );
-            unarchive.extract();
+            return ArtifactUnpacker.unpack( artifact.getFile(), dirName, archiverManager );
         }
         catch ( Exception e )
         {
             throw new MavenRuntimeException( "Failed to extract " + artifact, e );
         }
-
-        return dir;
     }
 
-    // TODO lazy load here would be awesome
+    @SuppressWarnings( "unchecked" )
     protected File getUnpackedFrameworkConfig()
     {
-        Artifact frmkCfg = getFrameworkConfig();
-
-        if ( frmkCfg == null )
+        Artifact dependency =
+            getDependency( groupId( FRAMEWORK_GROUP_ID ), artifactId( "framework" ), classifier( "configs" ),
+                           type( "zip" ) );
+        String version = dependency == null ? getFrameworkVersion() : dependency.getVersion();
+        if ( version == null )
         {
             return null;
         }
 
-        return getUnpackedArtifact( frmkCfg.getGroupId(), frmkCfg.getArtifactId(), frmkCfg.getVersion(),
-                                    frmkCfg.getClassifier(), frmkCfg.getType() );
+        // usually unpacked already, for the whole reactor, by FlexToolchainMavenExtension
+        return FlexToolchainRegistry.getFrameworkConfig( session, getCompilerVersion(), version, new Callable<File>()
+        {
+            public File call()
+            {
+                Artifact frmkCfg = getFrameworkConfig();
+                return getUnpackedArtifact( frmkCfg.getGroupId(), frmkCfg.getArtifactId(), frmkCfg.getVersion(),
+                                            frmkCfg.getClassifier(), frmkCfg.getType() );
+            }
+        } );
     }
 
     @SuppressWarnings( "unchecked" )
@@ -711,26 +724,110 @@ public abstract class AbstractMavenMojo
     {
         Artifact artifact =
             repositorySystem.createArtifactWithClassifier( groupId, artifactId, version, type, classifier );
-        if ( !artifact.isResolved() )
-        {
-            ArtifactResolutionRequest req = new ArtifactResolutionRequest();
-            req.setArtifact( artifact );
-            req.setLocalRepository( localRepository );
-            req.setRemoteRepositories( remoteRepositories );
-            ArtifactResolutionResult res = repositorySystem.resolve( req );
-            if ( !res.isSuccess() )
+        if ( artifact.isResolved() || resolveFromReactor( artifact ) )
+        {
+            return artifact;
+        }
+        return ArtifactResolutionCache.forSession( session ).resolve( artifact, remoteRepositories, createResolver() );
+    }
+
+    /**
+     * Resolves several artifacts concurrently. Each artifact is looked up only once per build and set of repositories.
+     * 
+     * @return resolved artifacts, in the requested order
+     */
+    public List<Artifact> resolve( Collection<Artifact> artifacts )
+        throws RuntimeMavenResolutionException
+    {
+        List<Artifact> result = new ArrayList<Artifact>( artifacts );
+        List<Integer> indexes = new ArrayList<Integer>();
+        List<Artifact> external = new ArrayList<Artifact>();
+        for ( int i = 0; i < result.size(); i++ )
+        {
+            if ( !result.get( i ).isResolved() && !resolveFromReactor( result.get( i ) ) )
+            {
+                indexes.add( i );
+                external.add( result.get( i ) );
+            }
+        }
+
+        List<Artifact> resolved =
+            ArtifactResolutionCache.forSession( session ).resolve( external, remoteRepositories, createResolver(),
+                                                                   resolutionThreads );
+        for ( int i = 0; i < indexes.size(); i++ )
+        {
+            result.set( indexes.get( i ), resolved.get( i ) );
+        }
+        return result;
+    }
+
+    /**
+     * Points the artifact to the output of another project of this reactor, when it was already built in this
+     * session. Downstream modules then read upstream <code>target/</code> files instead of installed copies.
+     * 
+     * @return true if the artifact was found in the reactor
+     */
+    protected boolean resolveFromReactor( Artifact artifact )
+    {
+        if ( session == null || session.getProjects() == null )
+        {
+            return false;
+        }
+
+        for ( MavenProject reactorProject : session.getProjects() )
+        {
+            if ( reactorProject == project || !artifact.getGroupId().equals( reactorProject.getGroupId() )
+                || !artifact.getArtifactId().equals( reactorProject.getArtifactId() )
+                || !StringUtils.equals( artifact.getVersion(), reactorProject.getVersion() ) )
             {
-                if ( getLog().isDebugEnabled() )
+                continue;
+            }
+
+            List<Artifact> outputs = new ArrayList<Artifact>();
+            outputs.add( reactorProject.getArtifact() );
+            outputs.addAll( reactorProject.getAttachedArtifacts() );
+            String classifier = StringUtils.defaultString( artifact.getClassifier() );
+            for ( Artifact output : outputs )
+            {
+                if ( output != null && output.getFile() != null && output.getFile().isFile()
+                    && artifact.getType().equals( output.getType() )
+                    && classifier.equals( StringUtils.defaultString( output.getClassifier() ) ) )
                 {
-                    for ( Exception e : res.getExceptions() )
+                    artifact.setFile( output.getFile() );
+                    artifact.setResolved( true );
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private ArtifactResolutionCache.Resolver createResolver()
+    {
+        return new ArtifactResolutionCache.Resolver()
+        {
+            public Artifact resolve( Artifact artifact )
+            {
+                ArtifactResolutionRequest req = new ArtifactResolutionRequest();
+                req.setArtifact( artifact );
+                req.setLocalRepository( localRepository );
+                req.setRemoteRepositories( remoteRepositories );
+                ArtifactResolutionResult res = repositorySystem.resolve( req );
+                if ( !res.isSuccess() )
+                {
+                    if ( getLog().isDebugEnabled() )
                     {
-                        getLog().error( e );
+                        for ( Exception e : res.getExceptions() )
+                        {
+                            getLog().error( e );
+                        }
                     }
+                    throw new RuntimeMavenResolutionException( "Failed to resolve artifact " + artifact, res,
+                                                               artifact );
                 }
-                throw new RuntimeMavenResolutionException( "Failed to resolve artifact " + artifact, res, artifact );
+                return artifact;
             }
-        }
-        return artifact;
+        };
     }
 
     protected DirectoryScanner scan( FileSet pattern )
@@ -760,6 +857,25 @@ public abstract class AbstractMavenMojo
         return scanner;
     }
 
+    /**
+     * Same as {@link #scan(PatternSet, File)}, answered from a snapshot of the directory taken once per build.
+     */
+    protected String[] scanSnapshot( PatternSet pattern, File directory )
+    {
+        return DirectorySnapshot.of( session, directory ).getIncludedFiles( pattern.getIncludes(),
+                                                                           pattern.getExcludes(), true );
+    }
+
+    /**
+     * Must be called after writing into the project, so later scans of the directories holding written see it
+     */
+    protected void written( File written )
+    {
+        DirectorySnapshot.invalidate( session, written );
+        PathUtil.invalidate( written );
+        LoadExternsMerger.invalidate( written );
+    }
+
     protected DirectoryScanner scan( Resource resource )
     {
         File dir;
@@ -31,6 +31,7 @@ import org.apache.maven.model.Plugin;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
 import net.flexmojos.oss.matcher.artifact.DependencyMatcher;
+import net.flexmojos.oss.util.PathUtil;
 
 @Component( role = AbstractMavenLifecycleParticipant.class, hint = "DependencyOrder" )
 public class DependencyOrderMavenExtension
@@ -43,6 +44,9 @@ public class DependencyOrderMavenExtension
     public void afterSessionStart( MavenSession session )
         throws MavenExecutionException
     {
+        // canonical paths are only remembered for the length of one build
+        PathUtil.scope( session.getRequest() );
+
         if ( session.getRequest().getUserProperties().containsKey( "flexmojos.ignore.dependency.order" ) )
         {
             return;
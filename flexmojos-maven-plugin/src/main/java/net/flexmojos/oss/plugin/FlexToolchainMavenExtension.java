@@ -0,0 +1,183 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.apache.maven.AbstractMavenLifecycleParticipant;
+import org.apache.maven.MavenExecutionException;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
+import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.model.Dependency;
+import org.apache.maven.model.Plugin;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.repository.RepositorySystem;
+import org.codehaus.plexus.archiver.manager.ArchiverManager;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.logging.Logger;
+import net.flexmojos.oss.plugin.utilities.ArtifactUnpacker;
+import net.flexmojos.oss.plugin.utilities.FlexToolchainRegistry;
+import net.flexmojos.oss.plugin.utilities.MavenUtils;
+
+/**
+ * Resolves and unpacks the framework configs of every compiler and framework version pair used by the reactor before
+ * the first module builds, so the mojos of all modules find them ready instead of each one preparing its own copy.
+ */
+@Component( role = AbstractMavenLifecycleParticipant.class, hint = "FlexToolchain" )
+public class FlexToolchainMavenExtension
+    extends AbstractMavenLifecycleParticipant
+{
+
+    private static final String FLEXMOJOS = "net.flexmojos.oss:flexmojos-maven-plugin";
+
+    private static final String FRAMEWORK_GROUP_ID = "com.adobe.flex.framework";
+
+    @Requirement
+    private ArchiverManager archiverManager;
+
+    @Requirement
+    private Logger logger;
+
+    @Requirement
+    private RepositorySystem repositorySystem;
+
+    @Override
+    public void afterProjectsRead( MavenSession session )
+        throws MavenExecutionException
+    {
+        if ( session.getRequest().getUserProperties().containsKey( "flexmojos.ignore.toolchain.warmup" ) )
+        {
+            return;
+        }
+
+        Map<List<String>, MavenProject> toolchains = new LinkedHashMap<List<String>, MavenProject>();
+        for ( MavenProject project : session.getProjects() )
+        {
+            String version = getFrameworkVersion( project );
+            if ( version == null )
+            {
+                continue;
+            }
+
+            List<String> toolchain = Arrays.asList( getCompilerVersion( project ), version );
+            if ( !toolchains.containsKey( toolchain ) )
+            {
+                toolchains.put( toolchain, project );
+            }
+        }
+
+        for ( Map.Entry<List<String>, MavenProject> entry : toolchains.entrySet() )
+        {
+            warmup( session, entry.getValue(), entry.getKey().get( 0 ), entry.getKey().get( 1 ) );
+        }
+    }
+
+    /**
+     * Same version {@link AbstractMavenMojo#getCompilerVersion()} finds among the plugin artifacts: the compiler
+     * dependency declared on flexmojos, if any, or else the one flexmojos was built with.
+     */
+    private String getCompilerVersion( MavenProject project )
+    {
+        Plugin flexmojos = project.getPlugin( FLEXMOJOS );
+        if ( flexmojos != null )
+        {
+            for ( Dependency dependency : flexmojos.getDependencies() )
+            {
+                if ( "com.adobe.flex".equals( dependency.getGroupId() )
+                    && "compiler".equals( dependency.getArtifactId() ) && "pom".equals( dependency.getType() ) )
+                {
+                    return dependency.getVersion();
+                }
+            }
+        }
+        return MavenUtils.getDefaultCompilerVersion();
+    }
+
+    /**
+     * Same lookup order as {@link AbstractMavenMojo#getFrameworkVersion()}, over the declared dependencies since
+     * nothing is resolved yet.
+     */
+    private String getFrameworkVersion( MavenProject project )
+    {
+        String[][] candidates =
+            { { "framework", "zip" }, { "flex-framework", "pom" }, { "air-framework", "pom" }, { "framework", "swc" },
+                { "airframework", "swc" } };
+        for ( String[] candidate : candidates )
+        {
+            for ( Dependency dependency : project.getDependencies() )
+            {
+                if ( FRAMEWORK_GROUP_ID.equals( dependency.getGroupId() )
+                    && candidate[0].equals( dependency.getArtifactId() ) && candidate[1].equals( dependency.getType() )
+                    && isPlainVersion( dependency.getVersion() ) )
+                {
+                    return dependency.getVersion();
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean isPlainVersion( String version )
+    {
+        return version != null && !version.startsWith( "[" ) && !version.startsWith( "(" );
+    }
+
+    private void warmup( final MavenSession session, final MavenProject project, String compilerVersion,
+                         final String version )
+    {
+        try
+        {
+            File dir = FlexToolchainRegistry.getFrameworkConfig( session, compilerVersion, version, new Callable<File>()
+            {
+                public File call()
+                    throws Exception
+                {
+                    Artifact artifact =
+                        repositorySystem.createArtifactWithClassifier( FRAMEWORK_GROUP_ID, "framework", version,
+                                                                       "zip", "configs" );
+                    ArtifactResolutionRequest req = new ArtifactResolutionRequest();
+                    req.setArtifact( artifact );
+                    req.setLocalRepository( session.getLocalRepository() );
+                    req.setRemoteRepositories( project.getRemoteArtifactRepositories() );
+                    ArtifactResolutionResult res = repositorySystem.resolve( req );
+                    if ( !res.isSuccess() )
+                    {
+                        throw new IllegalStateException( "Failed to resolve artifact " + artifact );
+                    }
+                    return ArtifactUnpacker.unpack( artifact.getFile(), "configs_zip", archiverManager );
+                }
+            } );
+            logger.debug( "Flex framework " + version + " configs for compiler " + compilerVersion + " ready at "
+                + dir );
+        }
+        catch ( RuntimeException e )
+        {
+            // mojos that need it try again, with their own repositories, and report the failure
+            logger.debug( "Unable to prepare Flex framework " + version, e );
+        }
+    }
+
+}
@@ -0,0 +1,225 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.air;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.codehaus.plexus.util.IOUtil;
+
+import net.flexmojos.oss.util.DigestUtil;
+
+/**
+ * SHA-256 of every file that goes into an AIR package, by its path inside the package, plus a hash of the packaging
+ * settings. Stored as a <code>#settings</code> line followed by <code>sha256 length lastModified path</code> lines, one
+ * per entry.
+ */
+public class AirEntryManifest
+{
+
+    private final String settings;
+
+    private final Map<String, String> digests;
+
+    private final Map<String, String> stats;
+
+    private AirEntryManifest( String settings, Map<String, String> digests, Map<String, String> stats )
+    {
+        this.settings = settings;
+        this.digests = digests;
+        this.stats = stats;
+    }
+
+    /**
+     * Hashes the entries concurrently, bounded by the available processors. An entry whose length and last
+     * modification match the previous manifest keeps its digest without being read.
+     * 
+     * @param previous the manifest of the last package, may be null
+     */
+    public static AirEntryManifest create( Map<String, File> entries, String settings, AirEntryManifest previous )
+        throws IOException
+    {
+        Map<String, String> stats = new LinkedHashMap<String, String>();
+        Map<String, Future<String>> futures = new LinkedHashMap<String, Future<String>>();
+        int threads = Math.max( 1, Math.min( entries.size(), Runtime.getRuntime().availableProcessors() ) );
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            for ( final Entry<String, File> entry : entries.entrySet() )
+            {
+                String stat = stat( entry.getValue() );
+                stats.put( entry.getKey(), stat );
+
+                if ( previous != null && previous.getDigest( entry.getKey(), stat ) != null )
+                {
+                    continue;
+                }
+
+                futures.put( entry.getKey(), executor.submit( new Callable<String>()
+                {
+                    public String call()
+                        throws IOException
+                    {
+                        return DigestUtil.sha256( entry.getValue() );
+                    }
+                } ) );
+            }
+
+            Map<String, String> digests = new LinkedHashMap<String, String>();
+            for ( String path : stats.keySet() )
+            {
+                Future<String> future = futures.get( path );
+                digests.put( path, future == null ? previous.getDigest( path ) : future.get() );
+            }
+            return new AirEntryManifest( DigestUtil.sha256( settings ), digests, stats );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException( "Interrupted while hashing AIR entries", e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new IOException( "Unable to hash AIR entry: " + e.getCause().getMessage(), e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String stat( File file )
+    {
+        return file.length() + " " + file.lastModified();
+    }
+
+    /**
+     * @return the manifest saved on file, or null if there is none
+     */
+    public static AirEntryManifest load( File file )
+        throws IOException
+    {
+        if ( !file.isFile() )
+        {
+            return null;
+        }
+
+        String settings = null;
+        Map<String, String> digests = new LinkedHashMap<String, String>();
+        Map<String, String> stats = new LinkedHashMap<String, String>();
+        BufferedReader reader = new BufferedReader( new InputStreamReader( new FileInputStream( file ), "UTF-8" ) );
+        try
+        {
+            String line;
+            while ( ( line = reader.readLine() ) != null )
+            {
+                if ( line.startsWith( "#" ) )
+                {
+                    settings = line.substring( 1 );
+                    continue;
+                }
+
+                String[] fields = line.split( " ", 4 );
+                if ( fields.length == 4 )
+                {
+                    digests.put( fields[3], fields[0] );
+                    stats.put( fields[3], fields[1] + " " + fields[2] );
+                }
+            }
+        }
+        finally
+        {
+            IOUtil.close( reader );
+        }
+        return new AirEntryManifest( settings, digests, stats );
+    }
+
+    public void save( File file )
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+        Writer writer = new OutputStreamWriter( new FileOutputStream( file ), "UTF-8" );
+        try
+        {
+            writer.write( "#" + settings + "\n" );
+            for ( Entry<String, String> digest : digests.entrySet() )
+            {
+                writer.write( digest.getValue() + " " + stats.get( digest.getKey() ) + " " + digest.getKey() + "\n" );
+            }
+        }
+        finally
+        {
+            IOUtil.close( writer );
+        }
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        if ( !( obj instanceof AirEntryManifest ) )
+        {
+            return false;
+        }
+
+        AirEntryManifest other = (AirEntryManifest) obj;
+        // entry order matters, it is the order files are written into the package
+        return ( settings == null ? other.settings == null : settings.equals( other.settings ) )
+            && getPaths().equals( other.getPaths() ) && digests.equals( other.digests );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return ( settings == null ? 0 : settings.hashCode() ) * 31 + digests.hashCode();
+    }
+
+    public String getDigest( String path )
+    {
+        return digests.get( path );
+    }
+
+    /**
+     * @return the digest of path, if it was taken from a file of the given length and last modification
+     */
+    private String getDigest( String path, String stat )
+    {
+        return stat.equals( stats.get( path ) ) ? digests.get( path ) : null;
+    }
+
+    public List<String> getPaths()
+    {
+        return new ArrayList<String>( digests.keySet() );
+    }
+
+}
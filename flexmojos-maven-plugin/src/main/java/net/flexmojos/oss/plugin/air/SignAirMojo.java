@@ -24,18 +24,16 @@ import static net.flexmojos.oss.util.PathUtil.file;
 import static net.flexmojos.oss.util.PathUtil.path;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.security.KeyStore;
-import java.security.PrivateKey;
-import java.security.cert.Certificate;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
 
 import org.apache.maven.artifact.Artifact;
@@ -50,6 +48,7 @@ import org.codehaus.plexus.util.FileUtils;
 import net.flexmojos.oss.plugin.AbstractMavenMojo;
 import net.flexmojos.oss.plugin.air.packager.FlexmojosAIRPackager;
 import net.flexmojos.oss.plugin.utilities.FileInterpolationUtil;
+import net.flexmojos.oss.util.DigestUtil;
 import net.flexmojos.oss.util.PathUtil;
 
 import com.adobe.air.Listener;
@@ -93,6 +92,14 @@ public class SignAirMojo
      */
     private boolean flexBuilderCompatibility;
 
+    /**
+     * When true, the package is only rebuilt if one of its entries, the descriptor template or the signing settings
+     * changed since the last package was created.
+     * 
+     * @parameter default-value="true" expression="${flexmojos.air.incremental}"
+     */
+    private boolean incremental;
+
     /**
      * Include specified files in AIR package.
      * 
@@ -151,7 +158,7 @@ public class SignAirMojo
      */
     private String timestampURL;
 
-    private void addSourceWithPath( FlexmojosAIRPackager packager, File directory, String includePath )
+    private void addSourceWithPath( Map<String, File> entries, File directory, String includePath )
         throws MojoFailureException
     {
         if ( includePath == null )
@@ -174,10 +181,10 @@ public class SignAirMojo
         }
 
         getLog().debug( "  adding source " + includeFile + " with path " + includePath );
-        packager.addSourceWithPath( includeFile, includePath );
+        entries.put( includePath, includeFile );
     }
 
-    private void appendArtifacts( FlexmojosAIRPackager packager, Collection<Artifact> deps )
+    private void appendArtifacts( Map<String, File> entries, Collection<Artifact> deps )
     {
         for ( Artifact artifact : deps )
         {
@@ -190,7 +197,7 @@ public class SignAirMojo
                     path = path.replace( "-" + artifact.getVersion(), "" );
                 }
                 getLog().debug( "  adding source " + source + " with path " + path );
-                packager.addSourceWithPath( source, path );
+                entries.put( path, source );
             }
         }
     }
@@ -200,39 +207,25 @@ public class SignAirMojo
     {
         try
         {
-            KeyStore keyStore = KeyStore.getInstance( storetype );
-            keyStore.load( new FileInputStream( keystore.getAbsolutePath() ), storepass.toCharArray() );
-            String alias = keyStore.aliases().nextElement();
-            PrivateKey key = (PrivateKey) keyStore.getKey( alias, storepass.toCharArray() );
-            packager.setPrivateKey( key );
-
             String c = this.classifier == null ? "" : "-" + this.classifier;
             File output =
                 new File( project.getBuild().getDirectory(), project.getBuild().getFinalName() + c + "." + packagerName );
-            packager.setOutput( output );
-            packager.setDescriptor( getAirDescriptor() );
 
-            Certificate certificate = keyStore.getCertificate( alias );
-            packager.setSignerCertificate( certificate );
-            Certificate[] certificateChain = keyStore.getCertificateChain( alias );
-            packager.setCertificateChain( certificateChain );
-            if ( this.timestampURL != null )
-            {
-                packager.setTimestampURL( TIMESTAMP_NONE.equals( this.timestampURL ) ? null : this.timestampURL );
-            }
+            // package path to file, collected first so all entries can be hashed at once
+            Map<String, File> entries = new LinkedHashMap<String, File>();
 
             String packaging = project.getPackaging();
             if ( AIR.equals( packaging ) )
             {
-                appendArtifacts( packager, project.getDependencyArtifacts() );
-                appendArtifacts( packager, project.getAttachedArtifacts() );
+                appendArtifacts( entries, project.getDependencyArtifacts() );
+                appendArtifacts( entries, project.getAttachedArtifacts() );
             }
             else if ( SWF.equals( packaging ) )
             {
                 File source = project.getArtifact().getFile();
                 String path = source.getName();
                 getLog().debug( "  adding source " + source + " with path " + path );
-                packager.addSourceWithPath( source, path );
+                entries.put( path, source );
             }
             else
             {
@@ -249,7 +242,7 @@ public class SignAirMojo
                 for ( final String includePath : includeFiles )
                 {
                     File directory = file( project.getBuild().getOutputDirectory() );
-                    addSourceWithPath( packager, directory, includePath );
+                    addSourceWithPath( entries, directory, includePath );
                 }
             }
 
@@ -272,11 +265,17 @@ public class SignAirMojo
                     String[] files = scanner.getIncludedFiles();
                     for ( String path : files )
                     {
-                        addSourceWithPath( packager, directory, path );
+                        addSourceWithPath( entries, directory, path );
                     }
                 }
             }
 
+            File manifestFile = getEntryManifest( output );
+            AirEntryManifest previous = AirEntryManifest.load( manifestFile );
+            AirEntryManifest manifest =
+                AirEntryManifest.create( entries, getPackageSettings( packagerName ), previous );
+            boolean upToDate = incremental && output.isFile() && manifest.equals( previous );
+
             if ( classifier != null )
             {
                 projectHelper.attachArtifact( project, packagerName, classifier, output );
@@ -297,6 +296,33 @@ public class SignAirMojo
                 }
             }
 
+            if ( upToDate )
+            {
+                getLog().info( "  AIR package is up to date: " + output.getAbsolutePath() );
+                return;
+            }
+
+            // a package that fails halfway must not look up to date on the next run
+            manifestFile.delete();
+
+            SigningIdentity identity = SigningIdentity.load( session, keystore, storetype, storepass );
+            packager.setPrivateKey( identity.getPrivateKey() );
+
+            packager.setOutput( output );
+            packager.setDescriptor( getAirDescriptor() );
+
+            packager.setSignerCertificate( identity.getCertificate() );
+            packager.setCertificateChain( identity.getCertificateChain() );
+            if ( this.timestampURL != null )
+            {
+                packager.setTimestampURL( TIMESTAMP_NONE.equals( this.timestampURL ) ? null : this.timestampURL );
+            }
+
+            for ( Entry<String, File> entry : entries.entrySet() )
+            {
+                packager.addSourceWithPath( entry.getValue(), entry.getKey() );
+            }
+
             final List<Message> messages = new ArrayList<Message>();
 
             try
@@ -337,6 +363,7 @@ public class SignAirMojo
             }
             else
             {
+                manifest.save( manifestFile );
                 getLog().info( "  AIR package created: " + output.getAbsolutePath() );
             }
         }
@@ -359,6 +386,29 @@ public class SignAirMojo
         }
     }
 
+    /**
+     * @return everything besides the entries that changes the package, the descriptor version is taken before the
+     *         snapshot timestamp goes in so an unchanged snapshot package is reused
+     */
+    private String getPackageSettings( String packagerName )
+        throws IOException
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append( "packager=" ).append( packagerName );
+        sb.append( ";descriptor=" ).append( DigestUtil.sha256( descriptorTemplate ) );
+        sb.append( ";version=" ).append( project.getVersion() );
+        sb.append( ";flexBuilderCompatibility=" ).append( flexBuilderCompatibility );
+        sb.append( ";keystore=" ).append( DigestUtil.sha256( keystore ) );
+        sb.append( ";storetype=" ).append( storetype );
+        sb.append( ";timestampURL=" ).append( timestampURL );
+        return sb.toString();
+    }
+
+    private File getEntryManifest( File output )
+    {
+        return new File( airOutput, output.getName() + "-entries.txt" );
+    }
+
     public void execute()
         throws MojoExecutionException, MojoFailureException
     {
@@ -0,0 +1,108 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.air;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.security.KeyStore;
+import java.security.PrivateKey;
+import java.security.cert.Certificate;
+import java.util.concurrent.Callable;
+
+import org.apache.maven.execution.MavenSession;
+import org.codehaus.plexus.util.IOUtil;
+
+import net.flexmojos.oss.plugin.utilities.SessionCache;
+import net.flexmojos.oss.util.DigestUtil;
+import net.flexmojos.oss.util.PathUtil;
+
+/**
+ * The private key and certificates an AIR package is signed with. Loading a keystore, PKCS12 in particular, is slow,
+ * so it is done once per build for every keystore, no matter how many packages it signs.
+ */
+public class SigningIdentity
+{
+
+    public static SigningIdentity load( MavenSession session, final File keystore, final String storetype,
+                                        final String storepass )
+    {
+        SessionCache<String, SigningIdentity> identities =
+            SessionCache.forSession( session, SigningIdentity.class.getName() );
+
+        String key =
+            PathUtil.path( keystore ) + ":" + keystore.length() + ":" + keystore.lastModified() + ":" + storetype + ":"
+                + DigestUtil.sha256( storepass );
+        return identities.get( key, new Callable<SigningIdentity>()
+        {
+            public SigningIdentity call()
+                throws Exception
+            {
+                return load( keystore, storetype, storepass );
+            }
+        } );
+    }
+
+    public static SigningIdentity load( File keystore, String storetype, String storepass )
+        throws Exception
+    {
+        KeyStore keyStore = KeyStore.getInstance( storetype );
+        InputStream keyStoreStream = new FileInputStream( keystore.getAbsolutePath() );
+        try
+        {
+            keyStore.load( keyStoreStream, storepass.toCharArray() );
+        }
+        finally
+        {
+            IOUtil.close( keyStoreStream );
+        }
+
+        String alias = keyStore.aliases().nextElement();
+        return new SigningIdentity( (PrivateKey) keyStore.getKey( alias, storepass.toCharArray() ),
+                                    keyStore.getCertificate( alias ), keyStore.getCertificateChain( alias ) );
+    }
+
+    private final PrivateKey privateKey;
+
+    private final Certificate certificate;
+
+    private final Certificate[] certificateChain;
+
+    private SigningIdentity( PrivateKey privateKey, Certificate certificate, Certificate[] certificateChain )
+    {
+        this.privateKey = privateKey;
+        this.certificate = certificate;
+        this.certificateChain = certificateChain;
+    }
+
+    public PrivateKey getPrivateKey()
+    {
+        return privateKey;
+    }
+
+    public Certificate getCertificate()
+    {
+        return certificate;
+    }
+
+    public Certificate[] getCertificateChain()
+    {
+        return certificateChain;
+    }
+
+}
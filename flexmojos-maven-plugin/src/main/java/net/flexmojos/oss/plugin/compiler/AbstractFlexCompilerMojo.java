@@ -51,13 +51,16 @@ import static net.flexmojos.oss.util.PathUtil.pathsList;
 import java.awt.GraphicsEnvironment;
 import java.io.File;
 import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.Reader;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -118,8 +121,12 @@ import net.flexmojos.oss.plugin.compiler.attributes.MavenMetadataConfiguration;
 import net.flexmojos.oss.plugin.compiler.attributes.MavenNamespace;
 import net.flexmojos.oss.plugin.compiler.attributes.MavenRuntimeException;
 import net.flexmojos.oss.plugin.compiler.lazyload.Cacheable;
+import net.flexmojos.oss.plugin.compiler.lazyload.LayeredCache;
+import net.flexmojos.oss.plugin.compiler.lazyload.NotCacheable;
 import net.flexmojos.oss.plugin.utilities.ConfigurationResolver;
+import net.flexmojos.oss.plugin.utilities.LoadExternsMerger;
 import net.flexmojos.oss.plugin.utilities.MavenUtils;
+import net.flexmojos.oss.util.DigestUtil;
 import net.flexmojos.oss.util.PathUtil;
 
 public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompilerMojo<CFG, C>>
@@ -942,6 +949,16 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
     @Deprecated
     protected MavenArtifact[] loadExterns;
 
+    /**
+     * When true, all load externs link reports are merged into a single deduplicated externs file before being handed
+     * to the compiler. The merged file is written to the project build directory and named after the content of the
+     * reports, so every compile of the project loading the same reports, modules and locales included, parses one small
+     * file instead of each full report.
+     * 
+     * @parameter default-value="true" expression="${flex.mergeLoadExterns}"
+     */
+    protected boolean mergeLoadExterns;
+
     /**
      * Specifies the locale for internationalization
      * <p>
@@ -1563,6 +1580,23 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         return paths;
     }
 
+    /**
+     * Lazy loaded values that don't change between a compilation and its locale/module clones, computed once and
+     * inherited by the clones. Only values computed from inputs that exist before compilation belong here, never from
+     * files a compilation writes, like the resource bundle list or the link report.
+     */
+    private static final Set<String> SHARED_CACHE = Collections.unmodifiableSet( new HashSet<String>(
+        Arrays.asList( "getAirTarget", "getCompilerVersion", "getCompilerWarnings", "getDefaultsCssFiles", "getDefine",
+                       "getDependencies", "getDependencyIndex", "getFontsConfiguration", "getFrameworkConfig",
+                       "getFrameworkVersion", "getGlobalArtifact", "getGlobalArtifactCollection", "getIsAirProject",
+                       "getLicense", "getNamespace", "getPolicyFileUrls", "getRslUrls", "getServices", "getTheme",
+                       "getUnpackedFrameworkConfig" ) ) );
+
+    {
+        // layered up front, so clones made on worker threads never race to convert it
+        cache = new LayeredCache( cache, SHARED_CACHE );
+    }
+
     @SuppressWarnings( "unchecked" )
     @Override
     public C clone()
@@ -1570,7 +1604,7 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         try
         {
             C clone = (C) super.clone();
-            clone.cache = new LinkedHashMap<String, Object>();
+            clone.cache = ( (LayeredCache) cache ).branch();
             return clone;
         }
         catch ( CloneNotSupportedException e )
@@ -1673,6 +1707,23 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
             + "'" );
     }
 
+    /**
+     * Compiles that don't synchronize are only done writing their outputs and reports once their result is checked
+     */
+    @Override
+    protected void checkResult( Result result )
+        throws MojoFailureException, MojoExecutionException
+    {
+        try
+        {
+            super.checkResult( result );
+        }
+        finally
+        {
+            written( new File( project.getBuild().getDirectory() ) );
+        }
+    }
+
     protected Result executeCompiler( CFG cfg, boolean synchronize )
         throws MojoExecutionException, MojoFailureException
     {
@@ -1685,6 +1736,11 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         {
             throw new MojoExecutionException( e.getMessage(), e );
         }
+        finally
+        {
+            // outputs, link and size reports all land in the build directory
+            written( new File( project.getBuild().getDirectory() ) );
+        }
 
         if ( synchronize )
         {
@@ -2419,14 +2475,15 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
 
         if ( loadExterns != null )
         {
+            List<Artifact> linkReports = new ArrayList<Artifact>();
             for ( MavenArtifact loadExtern : loadExterns )
             {
-                Artifact resolvedArtifact =
-                    resolve( loadExtern.getGroupId(), loadExtern.getArtifactId(), loadExtern.getVersion(), LINK_REPORT,
-                             XML );
-                artifacts.add( resolvedArtifact );
+                linkReports.add( repositorySystem.createArtifactWithClassifier( loadExtern.getGroupId(),
+                                                                                loadExtern.getArtifactId(),
+                                                                                loadExtern.getVersion(), XML,
+                                                                                LINK_REPORT ) );
             }
-
+            artifacts.addAll( resolve( linkReports ) );
         }
 
         if ( artifacts.isEmpty() )
@@ -2434,7 +2491,27 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
             return null;
         }
 
-        return PathUtil.paths( MavenUtils.getFilesSet( artifacts ) );
+        return mergeLoadExterns( MavenUtils.getFilesSet( artifacts ) );
+    }
+
+    protected String[] mergeLoadExterns( Collection<File> reports )
+    {
+        if ( !mergeLoadExterns )
+        {
+            return PathUtil.paths( reports );
+        }
+
+        try
+        {
+            File merged =
+                LoadExternsMerger.merge( reports, new File( project.getBuild().getDirectory(), "load-externs" ) );
+            written( merged );
+            return new String[] { PathUtil.path( merged ) };
+        }
+        catch ( IOException e )
+        {
+            throw new MavenRuntimeException( "Failed to merge load externs " + reports, e );
+        }
     }
 
     public String[] getLocale()
@@ -3255,6 +3332,14 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
             return true;
         }
 
+        File previousOutput = new File( getOutput() );
+        File stateFile = getCompilationStateFile();
+        if ( previousOutput.isFile() && stateFile.isFile() )
+        {
+            // compiled before in this target folder, no need to look at the installed copy
+            return isCompilationStateChanged( stateFile );
+        }
+
         Artifact artifact;
         try
         {
@@ -3290,17 +3375,7 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
 
         if ( !required )
         {
-            Collection<File> files =
-                org.apache.commons.io.FileUtils.listFiles( new File( project.getBuild().getSourceDirectory() ),
-                                                           new AgeFileFilter( lastCompiledArtifact, false ),
-                                                           TrueFileFilter.INSTANCE );
-
-            // If has any newer file
-            if ( files.size() > 0 )
-            {
-                getLog().warn( "Found some updated files." );
-                required = true;
-            }
+            required = isSourceChanged( lastCompiledArtifact );
         }
 
         if ( !required )
@@ -3315,6 +3390,7 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
                 {
                     getLog().warn( "Could not set modified on copied artifact. Unnecessary rebuilds will occur." );
                 }
+                saveCompilationState( lastCompiledArtifact );
             }
             catch ( IOException e )
             {
@@ -3327,6 +3403,144 @@ public abstract class AbstractFlexCompilerMojo<CFG, C extends AbstractFlexCompil
         return required;
     }
 
+    /**
+     * Compares dependency contents with the ones recorded by the last compilation. Hashes are used instead of
+     * timestamps, so an upstream reactor module rebuilt to identical content doesn't trigger a recompile.
+     */
+    private boolean isCompilationStateChanged( File stateFile )
+    {
+        Properties previous = new Properties();
+        Reader reader = null;
+        try
+        {
+            reader = new FileReader( stateFile );
+            previous.load( reader );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to read " + stateFile + ", recompiling." );
+            return true;
+        }
+        finally
+        {
+            IOUtil.close( reader );
+        }
+
+        long compileStarted;
+        try
+        {
+            compileStarted = Long.parseLong( (String) previous.remove( COMPILE_STARTED ) );
+        }
+        catch ( NumberFormatException e )
+        {
+            getLog().warn( "No compilation time in " + stateFile + ", recompiling." );
+            return true;
+        }
+
+        Properties current = getCompilationState();
+        if ( !current.equals( previous ) )
+        {
+            for ( Object key : current.keySet() )
+            {
+                if ( !current.get( key ).equals( previous.get( key ) ) )
+                {
+                    getLog().warn( "Found a updated dependency: " + key );
+                }
+            }
+            return true;
+        }
+
+        return isSourceChanged( compileStarted );
+    }
+
+    private boolean isSourceChanged( long lastCompiled )
+    {
+        File sourceDirectory = new File( project.getBuild().getSourceDirectory() );
+        if ( !sourceDirectory.isDirectory() )
+        {
+            return false;
+        }
+
+        Collection<File> files =
+            org.apache.commons.io.FileUtils.listFiles( sourceDirectory, new AgeFileFilter( lastCompiled, false ),
+                                                       TrueFileFilter.INSTANCE );
+
+        // If has any newer file
+        if ( files.size() > 0 )
+        {
+            getLog().warn( "Found some updated files." );
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * SHA-256 of every dependency, keyed by artifact id
+     */
+    @NotCacheable
+    private Properties getCompilationState()
+    {
+        Properties state = new Properties();
+        for ( Artifact dependency : getDependencies() )
+        {
+            File file = dependency.getFile();
+            try
+            {
+                state.setProperty( dependency.getId(), file == null || !file.isFile() ? "missing"
+                                : DigestUtil.sha256( file ) );
+            }
+            catch ( IOException e )
+            {
+                state.setProperty( dependency.getId(), "unreadable" );
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Quick mode state entry holding the compilation start time, dependency ids always contain a colon
+     */
+    private static final String COMPILE_STARTED = "compile.started";
+
+    private File getCompilationStateFile()
+    {
+        return new File( project.getBuild().getDirectory(), "quick/" + new File( getOutput() ).getName()
+            + ".properties" );
+    }
+
+    /**
+     * Records when compilation started and the dependencies this output was compiled against, for the next quick mode
+     * check. Sources are later compared to the start, so files edited while the compiler ran are picked up next time.
+     * 
+     * @param compileStarted time the compilation read its sources
+     */
+    public void saveCompilationState( long compileStarted )
+    {
+        if ( !quick )
+        {
+            return;
+        }
+
+        File stateFile = getCompilationStateFile();
+        stateFile.getParentFile().mkdirs();
+        Writer writer = null;
+        try
+        {
+            writer = new FileWriter( stateFile );
+            Properties state = getCompilationState();
+            state.setProperty( COMPILE_STARTED, String.valueOf( compileStarted ) );
+            state.store( writer, "Dependencies compiled into " + getOutput() );
+        }
+        catch ( IOException e )
+        {
+            getLog().warn( "Unable to save quick mode state " + stateFile, e );
+        }
+        finally
+        {
+            IOUtil.close( writer );
+        }
+    }
+
     @SuppressWarnings( "unchecked" )
     private File resolveThemeFile( String artifactName, String themeName, String type, String path )
     {
@@ -28,7 +28,6 @@ import org.apache.maven.model.FileSet;
 import org.apache.maven.plugin.Mojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
-import org.codehaus.plexus.util.DirectoryScanner;
 import net.flexmojos.oss.compiler.ICompcConfiguration;
 import net.flexmojos.oss.compiler.IIncludeFile;
 import net.flexmojos.oss.compiler.IIncludeStylesheet;
@@ -338,13 +337,13 @@ public class CompcMojo
 
         for ( FileSet pattern : patterns )
         {
-            final DirectoryScanner scan = scan( pattern );
-            if ( scan == null )
+            final File dir = PathUtil.file( pattern.getDirectory(), getBasedir() );
+            if ( !dir.exists() )
             {
                 continue;
             }
 
-            for ( final String file : scan.getIncludedFiles() )
+            for ( final String file : scanSnapshot( pattern, dir ) )
             {
                 files.add( new IIncludeFile()
                 {
@@ -355,7 +354,7 @@ public class CompcMojo
 
                     public String path()
                     {
-                        return PathUtil.file( file, scan.getBasedir() ).getAbsolutePath();
+                        return PathUtil.file( file, dir ).getAbsolutePath();
                     }
                 } );
             }
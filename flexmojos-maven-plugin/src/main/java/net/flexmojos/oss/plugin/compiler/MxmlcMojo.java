@@ -34,6 +34,11 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FilenameUtils;
 import org.apache.maven.plugin.Mojo;
@@ -166,83 +171,170 @@ public class MxmlcMojo
             return;
         }
 
-        executeCompiler( new MxmlcConfigurationHolder( this, getSourceFile() ), true );
-        if ( !file( getOutput() ).exists() )
+        ExecutorService executor = Executors.newFixedThreadPool( Runtime.getRuntime().availableProcessors() );
+        try
         {
-            throw new IllegalStateException( "Output file doesn't exist and now error was throw by the compiler!" );
-        }
+            List<Future<Result>> results = new ArrayList<Future<Result>>();
 
-        if ( getLocalesRuntime() != null )
-        {
-            List<Result> results = new ArrayList<Result>();
-            for ( String locale : getLocalesRuntime() )
+            executeCompiler( new MxmlcConfigurationHolder( this, getSourceFile() ), true );
+            if ( !file( getOutput() ).exists() )
             {
-                MxmlcMojo cfg = this.clone();
-                configureResourceBundle( locale, cfg );
-                results.add( executeCompiler( new MxmlcConfigurationHolder( cfg, null ), fullSynchronization ) );
+                throw new IllegalStateException( "Output file doesn't exist and now error was throw by the compiler!" );
             }
 
-            wait( results );
-        }
-
-        if ( getModules() != null )
-        {
-            List<Result> results = new ArrayList<Result>();
+            // runtime locales include the bundle list the application compile writes, so they start after it
+            if ( getLocalesRuntime() != null )
+            {
+                for ( final String locale : getLocalesRuntime() )
+                {
+                    schedule( executor, results, new Callable<MxmlcConfigurationHolder>()
+                    {
+                        public MxmlcConfigurationHolder call()
+                        {
+                            MxmlcMojo cfg = MxmlcMojo.this.clone();
+                            configureResourceBundle( locale, cfg );
+                            return new MxmlcConfigurationHolder( cfg, null );
+                        }
+                    } );
+                }
+            }
 
-            for ( Module module : getModules() )
+            // modules load externs the application link report, so they start once the application is linked
+            if ( getModules() != null )
             {
-                if ( module.isOptimize() == null )
+                for ( final Module module : getModules() )
                 {
-                    module.setOptimize( modulesLoadExterns );
+                    schedule( executor, results, new Callable<MxmlcConfigurationHolder>()
+                    {
+                        public MxmlcConfigurationHolder call()
+                        {
+                            return getModuleConfiguration( module );
+                        }
+                    } );
                 }
+            }
 
-                File moduleSource =
-                    SourceFileResolver.resolveSourceFile( project.getCompileSourceRoots(), module.getSourceFile() );
+            waitAll( results );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
 
-                String classifier = FilenameUtils.getBaseName( moduleSource.getName() ).toLowerCase();
+    private MxmlcConfigurationHolder getModuleConfiguration( Module module )
+    {
+        if ( module.isOptimize() == null )
+        {
+            module.setOptimize( modulesLoadExterns );
+        }
 
-                String moduleFinalName;
-                if ( module.getFinalName() != null )
-                {
-                    moduleFinalName = module.getFinalName();
-                }
-                else
-                {
-                    moduleFinalName = project.getBuild().getFinalName() + "-" + classifier;
-                }
+        File moduleSource =
+            SourceFileResolver.resolveSourceFile( project.getCompileSourceRoots(), module.getSourceFile() );
 
-                File moduleOutputDir;
-                if ( module.getDestinationPath() != null )
-                {
-                    moduleOutputDir = new File( project.getBuild().getDirectory(), module.getDestinationPath() );
-                }
-                else
-                {
-                    moduleOutputDir = new File( project.getBuild().getDirectory() );
-                }
+        String classifier = FilenameUtils.getBaseName( moduleSource.getName() ).toLowerCase();
+
+        String moduleFinalName;
+        if ( module.getFinalName() != null )
+        {
+            moduleFinalName = module.getFinalName();
+        }
+        else
+        {
+            moduleFinalName = project.getBuild().getFinalName() + "-" + classifier;
+        }
+
+        File moduleOutputDir;
+        if ( module.getDestinationPath() != null )
+        {
+            moduleOutputDir = new File( project.getBuild().getDirectory(), module.getDestinationPath() );
+        }
+        else
+        {
+            moduleOutputDir = new File( project.getBuild().getDirectory() );
+        }
 
-                List<String> loadExterns = new ArrayList<String>();
-                loadExterns.add( getLinkReport() );
-                if ( getLoadExterns() != null )
+        List<File> loadExterns = new ArrayList<File>();
+        loadExterns.add( file( getLinkReport() ) );
+        if ( getLoadExterns() != null )
+        {
+            loadExterns.addAll( Arrays.asList( PathUtil.files( getLoadExterns() ) ) );
+        }
+
+        MxmlcMojo cfg = this.clone();
+        cfg.classifier = classifier;
+        cfg.targetDirectory = moduleOutputDir;
+        cfg.finalName = moduleFinalName;
+        if ( module.isOptimize() )
+        {
+            // merged once, every module loading the same reports reuses it
+            cfg.getCache().put( LOAD_EXTERNS, mergeLoadExterns( loadExterns ) );
+        }
+        cfg.getCache().put( RUNTIME_SHARED_LIBRARY_PATH, null );
+        cfg.getCache().put( INCLUDE_LIBRARIES, null );
+        cfg.getCache().put( EXTERNAL_LIBRARY_PATH, getModulesExternalLibraryPath() );
+        return new MxmlcConfigurationHolder( cfg, moduleSource );
+    }
+
+    /**
+     * Configures and compiles on the bounded pool, or right away when fullSynchronization is on. Configuration getters
+     * are safe to evaluate concurrently, the lazy load cache computes each value once.
+     */
+    private void schedule( ExecutorService executor, List<Future<Result>> results,
+                           final Callable<MxmlcConfigurationHolder> configuration )
+        throws MojoExecutionException, MojoFailureException
+    {
+        if ( fullSynchronization )
+        {
+            MxmlcConfigurationHolder cfg;
+            try
+            {
+                cfg = configuration.call();
+            }
+            catch ( Exception e )
+            {
+                throw new MojoExecutionException( e.getMessage(), e );
+            }
+            executeCompiler( cfg, true );
+            return;
+        }
+
+        results.add( executor.submit( new Callable<Result>()
+        {
+            public Result call()
+                throws Exception
+            {
+                return executeCompiler( configuration.call(), true );
+            }
+        } ) );
+    }
+
+    private void waitAll( List<Future<Result>> results )
+        throws MojoExecutionException, MojoFailureException
+    {
+        for ( Future<Result> result : results )
+        {
+            try
+            {
+                result.get();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException( "Interrupted while waiting for compilation", e );
+            }
+            catch ( ExecutionException e )
+            {
+                if ( e.getCause() instanceof MojoFailureException )
                 {
-                    loadExterns.addAll( Arrays.asList( getLoadExterns() ) );
+                    throw (MojoFailureException) e.getCause();
                 }
-
-                MxmlcMojo cfg = this.clone();
-                cfg.classifier = classifier;
-                cfg.targetDirectory = moduleOutputDir;
-                cfg.finalName = moduleFinalName;
-                if ( module.isOptimize() )
+                if ( e.getCause() instanceof MojoExecutionException )
                 {
-                    cfg.getCache().put( LOAD_EXTERNS, loadExterns.toArray( new String[1] ) );
+                    throw (MojoExecutionException) e.getCause();
                 }
-                cfg.getCache().put( RUNTIME_SHARED_LIBRARY_PATH, null );
-                cfg.getCache().put( INCLUDE_LIBRARIES, null );
-                cfg.getCache().put( EXTERNAL_LIBRARY_PATH, getModulesExternalLibraryPath() );
-                results.add( executeCompiler( new MxmlcConfigurationHolder( cfg, moduleSource ), fullSynchronization ) );
+                throw new MojoExecutionException( e.getCause().getMessage(), e.getCause() );
             }
-
-            wait( results );
         }
     }
 
@@ -0,0 +1,127 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.lazyload;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lazy load cache split in two layers. Values whose names are in the shared key set live in a map shared by a mojo
+ * and all its clones, so they are computed only once. Every other value lives in a per instance overlay, since it
+ * may depend on what the clone changed (output, locale, link report, ...).
+ */
+public class LayeredCache
+    extends AbstractMap<String, Object>
+{
+
+    private final Map<String, Object> shared;
+
+    private final Set<String> sharedKeys;
+
+    private final Map<String, Object> overlay =
+        Collections.synchronizedMap( new LinkedHashMap<String, Object>() );
+
+    /**
+     * Splits the values already cached by a mojo into the two layers
+     */
+    public LayeredCache( Map<String, Object> values, Set<String> sharedKeys )
+    {
+        this( sharedKeys, Collections.synchronizedMap( new LinkedHashMap<String, Object>() ) );
+        putAll( values );
+    }
+
+    private LayeredCache( Set<String> sharedKeys, Map<String, Object> shared )
+    {
+        this.shared = shared;
+        this.sharedKeys = sharedKeys;
+    }
+
+    /**
+     * @return a cache for a clone, sharing this cache's shared layer with an empty overlay
+     */
+    public LayeredCache branch()
+    {
+        return new LayeredCache( sharedKeys, shared );
+    }
+
+    private Map<String, Object> layer( Object key )
+    {
+        return sharedKeys.contains( key ) ? shared : overlay;
+    }
+
+    /**
+     * @return the object to synchronize on to check and update <code>key</code> atomically, across clones for shared
+     *         values
+     */
+    public Object monitor( String key )
+    {
+        return layer( key );
+    }
+
+    @Override
+    public boolean containsKey( Object key )
+    {
+        return layer( key ).containsKey( key );
+    }
+
+    @Override
+    public Object get( Object key )
+    {
+        return layer( key ).get( key );
+    }
+
+    @Override
+    public Object put( String key, Object value )
+    {
+        return layer( key ).put( key, value );
+    }
+
+    @Override
+    public Object remove( Object key )
+    {
+        return layer( key ).remove( key );
+    }
+
+    /**
+     * Only forgets this instance's own values, the shared layer belongs to the whole family
+     */
+    @Override
+    public void clear()
+    {
+        overlay.clear();
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet()
+    {
+        Map<String, Object> all;
+        synchronized ( shared )
+        {
+            all = new LinkedHashMap<String, Object>( shared );
+        }
+        synchronized ( overlay )
+        {
+            all.putAll( overlay );
+        }
+        return Collections.unmodifiableMap( all ).entrySet();
+    }
+
+}
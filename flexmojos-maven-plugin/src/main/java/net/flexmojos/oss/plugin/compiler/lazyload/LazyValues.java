@@ -0,0 +1,92 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.lazyload;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Compute once lookups on a lazy load cache. The first thread asking for a value computes it, concurrent ones wait for
+ * it. Whatever way the computation ends, waiters are released: with the value, or with the same failure.
+ */
+final class LazyValues
+{
+
+    static Object get( Map<String, Object> cachedValues, String name, Callable<Object> computation )
+    {
+        Object lock = cachedValues instanceof LayeredCache ? ( (LayeredCache) cachedValues ).monitor( name )
+                        : cachedValues;
+        PendingValue pending = null;
+        Object cached;
+        synchronized ( lock )
+        {
+            cached = cachedValues.get( name );
+            if ( !cachedValues.containsKey( name ) )
+            {
+                pending = new PendingValue();
+                cachedValues.put( name, pending );
+            }
+        }
+
+        if ( pending == null )
+        {
+            return cached instanceof PendingValue ? ( (PendingValue) cached ).get() : cached;
+        }
+
+        Object value;
+        try
+        {
+            value = computation.call();
+        }
+        catch ( Throwable e )
+        {
+            // checked exceptions too, getters like getTemplate() declare them
+            forget( cachedValues, lock, name, pending );
+            pending.fail( e );
+            throw PendingValue.rethrow( e );
+        }
+
+        synchronized ( lock )
+        {
+            // unless it was explicitly replaced meanwhile
+            if ( cachedValues.get( name ) == pending )
+            {
+                cachedValues.put( name, value );
+            }
+        }
+        pending.set( value );
+        return value;
+    }
+
+    private static void forget( Map<String, Object> cachedValues, Object lock, String name, PendingValue pending )
+    {
+        synchronized ( lock )
+        {
+            if ( cachedValues.get( name ) == pending )
+            {
+                cachedValues.remove( name );
+            }
+        }
+    }
+
+    private LazyValues()
+    {
+        super();
+    }
+
+}
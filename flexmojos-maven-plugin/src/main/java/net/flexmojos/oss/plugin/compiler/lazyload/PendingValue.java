@@ -0,0 +1,85 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.lazyload;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Placeholder kept in a lazy load cache while one thread computes the value, other threads asking for the same value
+ * wait for it instead of computing it again.
+ */
+class PendingValue
+{
+
+    private final CountDownLatch done = new CountDownLatch( 1 );
+
+    private Object value;
+
+    private Throwable failure;
+
+    void set( Object value )
+    {
+        this.value = value;
+        done.countDown();
+    }
+
+    void fail( Throwable failure )
+    {
+        this.failure = failure;
+        done.countDown();
+    }
+
+    Object get()
+    {
+        try
+        {
+            done.await();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while waiting for a lazy loaded value", e );
+        }
+
+        if ( failure != null )
+        {
+            throw rethrow( failure );
+        }
+        return value;
+    }
+
+    /**
+     * Throws failure as it is. Getters may declare checked exceptions, which the advice around all of them can't, so
+     * those are thrown unchecked, just as the getter itself would have thrown them.
+     * 
+     * @return never returns, typed so callers can <code>throw</code> it
+     */
+    static RuntimeException rethrow( Throwable failure )
+    {
+        PendingValue.<RuntimeException> sneakyThrow( failure );
+        return null;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static <T extends Throwable> void sneakyThrow( Throwable failure )
+        throws T
+    {
+        throw (T) failure;
+    }
+
+}
@@ -183,6 +183,7 @@ public class Font2SwfMojo
             File outputFile = new File( getTargetDirectory(), fontSwfFinalName + ".swf" );
             output = new FileOutputStream( outputFile );
             fontTranscoder.transcode( description, output );
+            written( outputFile );
         }
         catch ( FontTranscoderException e )
         {
@@ -26,6 +26,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.apache.commons.io.FilenameUtils;
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -35,6 +36,7 @@ import org.codehaus.plexus.util.IOUtil;
 import org.codehaus.plexus.util.StringUtils;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.Xpp3DomWriter;
+import net.flexmojos.oss.plugin.utilities.DirectorySnapshot;
 import net.flexmojos.oss.util.PathUtil;
 
 /**
@@ -73,6 +75,15 @@ public class ManifestMojo
      */
     private File outputFile;
 
+    /**
+     * The Maven Session Object
+     * 
+     * @parameter expression="${session}"
+     * @required
+     * @readonly
+     */
+    private MavenSession session;
+
     private String[] addDefaultIncludes( String[] manifestIncludes )
     {
         List<String> includes = new ArrayList<String>();
@@ -140,6 +151,7 @@ public class ManifestMojo
         {
             IOUtil.close( output );
         }
+        DirectorySnapshot.invalidate( session, outputFile );
     }
 
 }
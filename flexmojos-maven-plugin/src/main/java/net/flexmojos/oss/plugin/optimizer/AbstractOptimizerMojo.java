@@ -23,6 +23,14 @@ import static org.mockito.Mockito.when;
 import java.io.File;
 import java.io.IOException;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.model.Build;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -221,7 +229,8 @@ public abstract class AbstractOptimizerMojo
     private boolean reduceMergeCF;
 
     /**
-     * Use apparat to strip
+     * Use apparat to strip debug information and unused bytecode from SWFs. Runs before reducer, so reducer compresses
+     * the stripped bytecode.
      * <p>
      * Equivalent to apparat stripper
      * </p>
@@ -260,66 +269,204 @@ public abstract class AbstractOptimizerMojo
         return PathUtil.path( new File( build.getDirectory(), build.getFinalName() + ".swf" ) );
     }
 
+    /**
+     * Post-link stages, in the order they run. Each one names the intermediate file it writes.
+     */
+    protected enum Stage
+    {
+        OPTIMIZE( "optimized" ), STRIP( "stripped" ), REDUCE( "reduced" );
+
+        private final String fileName;
+
+        private Stage( String fileName )
+        {
+            this.fileName = fileName;
+        }
+    }
+
+    protected List<Stage> getStages()
+    {
+        List<Stage> stages = new ArrayList<Stage>();
+        if ( isOptimizerEnabled() )
+        {
+            stages.add( Stage.OPTIMIZE );
+        }
+        // strip ahead of reduce so the reducer compresses the smaller bytecode
+        if ( strip )
+        {
+            stages.add( Stage.STRIP );
+        }
+        if ( reduce )
+        {
+            stages.add( Stage.REDUCE );
+        }
+        return stages;
+    }
+
+    /**
+     * Runs the enabled stages as a single chain: the first stage reads the input as is and the last one writes straight
+     * to the output, so the SWF is only copied when no stage runs at all.
+     */
     protected File optimize()
         throws MojoFailureException, MojoExecutionException
     {
-        File input = PathUtil.file( getInput() );
+        return optimize( PathUtil.file( getInput() ), PathUtil.file( getOutput() ),
+                         new File( project.getBuild().getOutputDirectory() ) );
+    }
+
+    /**
+     * Runs the enabled stages over one SWF, keeping its intermediate files on workDirectory. Safe to call concurrently
+     * for different SWFs as long as each one gets its own workDirectory.
+     */
+    protected File optimize( File input, final File output, File workDirectory )
+        throws MojoFailureException, MojoExecutionException
+    {
         double originalSize = input.length();
+
+        List<Stage> stages = getStages();
+        for ( int i = 0; i < stages.size(); i++ )
         {
-            getLog().debug( "Backuping original file " + input );
-            final File output = new File( project.getBuild().getOutputDirectory(), "original.swf" );
+            Stage stage = stages.get( i );
+
+            File stageOutput;
+            if ( i == stages.size() - 1 && !output.equals( input ) )
+            {
+                stageOutput = output;
+            }
+            else
+            {
+                // RSLs are extracted right where the output goes, so never read and write the same file
+                stageOutput = new File( workDirectory, stage.fileName + ".swf" );
+            }
+
+            getLog().debug( "Running " + stage + " stage: " + input + " -> " + stageOutput );
+            double stageInputSize = input.length();
+            long start = System.currentTimeMillis();
+            run( stage, input, stageOutput );
+            long elapsed = System.currentTimeMillis() - start;
+
+            double stageOutputSize = stageOutput.length();
+            getLog().info( "Stage " + stage.fileName + " of " + output.getName() + ": " + (long) stageInputSize
+                + " -> " + (long) stageOutputSize + " bytes ("
+                + DECIMAL_FORMAT.format( ( stageOutputSize / stageInputSize ) * 100 ) + "%) in " + elapsed + "ms" );
+            input = stageOutput;
+        }
+
+        if ( !output.equals( input ) )
+        {
+            getLog().debug( "Placing optimized file on target folder" );
             try
             {
-                FileUtils.copyFile( input, output );
+                copy( input, output );
             }
             catch ( IOException e )
             {
                 throw new MojoExecutionException( e.getMessage(), e );
             }
-            input = output;
         }
 
-        input = optimize( input );
+        double finalSize = output.length();
+        double rate = ( finalSize / originalSize ) * 100;
 
-        if ( reduce )
+        getLog().info( "Optimization result of " + output.getName() + ": " + DECIMAL_FORMAT.format( rate ) + "%" );
+
+        return output;
+    }
+
+    protected void copy( File input, File output )
+        throws IOException
+    {
+        FileUtils.copyFile( input, output );
+    }
+
+    protected void run( Stage stage, File input, File output )
+        throws MojoFailureException, MojoExecutionException
+    {
+        switch ( stage )
         {
-            getLog().debug( "Reducing" );
-            final File output = new File( project.getBuild().getOutputDirectory(), "reduced.swf" );
-            reduce( input, output );
-            input = output;
+            case OPTIMIZE:
+                // flex tools keep static state, only reduce and strip run concurrently
+                synchronized ( AbstractOptimizerMojo.class )
+                {
+                    optimize( input, output );
+                }
+                break;
+            case STRIP:
+                strip( input, output );
+                break;
+            case REDUCE:
+                reduce( input, output );
+                break;
         }
+    }
 
-        if ( strip )
+    /**
+     * Runs the given optimizations on a pool bounded by the available processors.
+     */
+    protected void optimize( List<Callable<File>> optimizations )
+        throws MojoFailureException, MojoExecutionException
+    {
+        if ( optimizations.isEmpty() )
         {
-            getLog().debug( "Stripping" );
-            final File output = new File( project.getBuild().getOutputDirectory(), "stripped.swf" );
-            reduce( input, output );
-            input = output;
+            return;
         }
 
+        int threads = Math.min( optimizations.size(), Runtime.getRuntime().availableProcessors() );
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
         {
-            getLog().debug( "Placing optimized file on target folder" );
-            final File output = PathUtil.file( getOutput() );
-            try
+            for ( Future<File> optimization : executor.invokeAll( optimizations ) )
             {
-                FileUtils.copyFile( input, output );
+                optimization.get();
             }
-            catch ( IOException e )
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while optimizing SWFs", e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof MojoFailureException )
             {
-                throw new MojoExecutionException( e.getMessage(), e );
+                throw (MojoFailureException) cause;
             }
+            throw new MojoExecutionException( cause.getMessage(), cause );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
 
-            double finalSize = output.length();
-            double rate = ( finalSize / originalSize ) * 100;
-
-            getLog().info( "Optimization result: " + DECIMAL_FORMAT.format( rate ) + "%" );
-
-            return output;
+    /**
+     * @return every setting that changes the optimized SWF, used to tell whether a previous result can be reused
+     */
+    protected String getSettingsDescription()
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append( "stages=" ).append( getStages() );
+        sb.append( ";keepAs3Metadata=" ).append( Arrays.toString( getKeepAs3Metadata() ) );
+        sb.append( ";loadConfig=" ).append( Arrays.toString( getLoadConfig() ) );
+        if ( reduce )
+        {
+            sb.append( ";deblock=" ).append( reduceDeblock );
+            sb.append( ";lzma=" ).append( reduceLzma );
+            sb.append( ";matryoshkaType=" ).append( reduceMatryoshkaType );
+            sb.append( ";matryoshka=" ).append( reduceMatryoshka );
+            sb.append( ";mergeABC=" ).append( reduceMergeABC );
+            sb.append( ";quality=" ).append( reduceQuality );
+            sb.append( ";sortCPool=" ).append( reduceSortCPool );
+            sb.append( ";mergeCF=" ).append( reduceMergeCF );
         }
+        return sb.toString();
     }
 
-    protected abstract File optimize( File input )
-        throws MojoFailureException, MojoExecutionException;
+    /**
+     * @return true when the flex optimizer should run before strip and reduce
+     */
+    protected abstract boolean isOptimizerEnabled();
 
     protected void optimize( File input, File output )
         throws MojoFailureException, MojoExecutionException
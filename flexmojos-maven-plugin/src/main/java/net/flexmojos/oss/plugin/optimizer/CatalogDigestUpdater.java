@@ -0,0 +1,189 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.optimizer;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.Xpp3DomWriter;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+
+/**
+ * Writes the unsigned RSL digest into a SWC catalog, the same change the flex digest tool does for unsigned RSLs.
+ */
+public class CatalogDigestUpdater
+{
+
+    public static final String CATALOG = "catalog.xml";
+
+    public static final String LIBRARY = "library.swf";
+
+    /**
+     * Rewrites the swc once, replacing only its catalog. Stored entries stay stored.
+     */
+    public static void update( File swc, String digest )
+        throws IOException
+    {
+        File tmp = new File( swc.getParentFile(), swc.getName() + ".tmp" );
+        boolean updated = false;
+
+        ZipInputStream in = new ZipInputStream( new BufferedInputStream( new FileInputStream( swc ) ) );
+        try
+        {
+            ZipOutputStream out = new ZipOutputStream( new BufferedOutputStream( new FileOutputStream( tmp ) ) );
+            try
+            {
+                ZipEntry entry;
+                while ( ( entry = in.getNextEntry() ) != null )
+                {
+                    ZipEntry copy = new ZipEntry( entry.getName() );
+                    copy.setTime( entry.getTime() );
+                    if ( CATALOG.equals( entry.getName() ) )
+                    {
+                        ByteArrayOutputStream catalog = new ByteArrayOutputStream();
+                        IOUtil.copy( in, catalog );
+                        out.putNextEntry( copy );
+                        out.write( update( catalog.toByteArray(), digest ) );
+                        updated = true;
+                    }
+                    else
+                    {
+                        if ( entry.getMethod() == ZipEntry.STORED )
+                        {
+                            // stored entries must be described up front, their local header is read as is
+                            copy.setMethod( ZipEntry.STORED );
+                            copy.setSize( entry.getSize() );
+                            copy.setCompressedSize( entry.getSize() );
+                            copy.setCrc( entry.getCrc() );
+                        }
+                        out.putNextEntry( copy );
+                        IOUtil.copy( in, out );
+                    }
+                    out.closeEntry();
+                }
+            }
+            finally
+            {
+                IOUtil.close( out );
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
+
+        if ( !updated )
+        {
+            tmp.delete();
+            throw new IOException( "Invalid SWC file. " + CATALOG + " not found. " + swc );
+        }
+
+        if ( !swc.delete() || !tmp.renameTo( swc ) )
+        {
+            FileUtils.copyFile( tmp, swc );
+            tmp.delete();
+        }
+    }
+
+    private static byte[] update( byte[] catalog, String digest )
+        throws IOException
+    {
+        Xpp3Dom dom;
+        try
+        {
+            dom = Xpp3DomBuilder.build( new InputStreamReader( new ByteArrayInputStream( catalog ), "UTF-8" ) );
+        }
+        catch ( XmlPullParserException e )
+        {
+            throw new IOException( "Invalid SWC catalog: " + e.getMessage(), e );
+        }
+
+        update( dom, digest );
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Writer writer = new OutputStreamWriter( bytes, "UTF-8" );
+        writer.write( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
+        Xpp3DomWriter.write( writer, dom );
+        writer.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Sets the library.swf unsigned SHA-256 digest of a parsed catalog to digest, adding it when missing
+     */
+    public static void update( Xpp3Dom catalog, String digest )
+        throws IOException
+    {
+        Xpp3Dom library = null;
+        Xpp3Dom libraries = catalog.getChild( "libraries" );
+        if ( libraries != null )
+        {
+            for ( Xpp3Dom candidate : libraries.getChildren( "library" ) )
+            {
+                if ( LIBRARY.equals( candidate.getAttribute( "path" ) ) )
+                {
+                    library = candidate;
+                }
+            }
+        }
+        if ( library == null )
+        {
+            throw new IOException( "Invalid SWC catalog. Library " + LIBRARY + " not found." );
+        }
+
+        Xpp3Dom digests = library.getChild( "digests" );
+        if ( digests == null )
+        {
+            digests = new Xpp3Dom( "digests" );
+            library.addChild( digests );
+        }
+
+        for ( Xpp3Dom candidate : digests.getChildren( "digest" ) )
+        {
+            if ( "SHA-256".equals( candidate.getAttribute( "type" ) )
+                && "false".equals( candidate.getAttribute( "signed" ) ) )
+            {
+                candidate.setAttribute( "value", digest );
+                return;
+            }
+        }
+
+        Xpp3Dom unsigned = new Xpp3Dom( "digest" );
+        unsigned.setAttribute( "type", "SHA-256" );
+        unsigned.setAttribute( "signed", "false" );
+        unsigned.setAttribute( "value", digest );
+        digests.addChild( unsigned );
+    }
+
+}
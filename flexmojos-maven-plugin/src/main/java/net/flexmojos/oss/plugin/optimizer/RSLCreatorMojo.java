@@ -20,18 +20,25 @@ package net.flexmojos.oss.plugin.optimizer;
 import static net.flexmojos.oss.plugin.common.FlexExtension.SWC;
 import static net.flexmojos.oss.plugin.common.FlexExtension.SWF;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Properties;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.codehaus.plexus.archiver.manager.ArchiverManager;
+import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
-import net.flexmojos.oss.compiler.IDigestConfiguration;
 import net.flexmojos.oss.plugin.compiler.attributes.MavenRuntimeException;
+import net.flexmojos.oss.util.DigestUtil;
 import net.flexmojos.oss.util.PathUtil;
 
 /**
@@ -46,6 +53,25 @@ public class RSLCreatorMojo
     extends AbstractOptimizerMojo
 {
 
+    private static final String STATE_FILE = "state.properties";
+
+    private static final String DIGESTED_SWC = "digested.swc";
+
+    private static final String SWC_HASH = "swc";
+
+    private static final String DIGESTED_SWC_HASH = "swc.digested";
+
+    private static final String SETTINGS = "settings";
+
+    private static final String COMPILER_VERSION = "compiler.version";
+
+    /**
+     * SHA-256 of the last RSL written, which went to rslDigestFile
+     */
+    private String rslDigest;
+
+    private File rslDigestFile;
+
     /**
      * @component
      * @readonly
@@ -104,64 +130,191 @@ public class RSLCreatorMojo
             return;
         }
 
+        File swc = project.getArtifact().getFile();
+        Properties state = getState( swc );
+        if ( isUpToDate( swc, state ) )
+        {
+            getLog().info( "SWC and optimizer settings didn't change, reusing RSL " + getOutput() );
+            projectHelper.attachArtifact( project, SWF, new File( getOutput() ) );
+            return;
+        }
+
         File input = optimize();
 
         if ( updateSwcDigest )
         {
-            int result;
             try
             {
-                result = compiler.digest( getDigestConfiguration( input ), true ).getExitCode();
-            }
-            catch ( Exception e )
-            {
-                throw new MojoExecutionException( e.getMessage(), e );
+                // the digest taken while writing only counts if it was taken from the final RSL
+                String digest = input.equals( rslDigestFile ) ? rslDigest : DigestUtil.sha256( input );
+                getLog().debug( "Updating SWC digest: " + digest );
+                CatalogDigestUpdater.update( swc, digest );
             }
-
-            if ( result != 0 )
+            catch ( IOException e )
             {
-                throw new MojoFailureException( "Got " + result + " errors building project, check logs" );
+                throw new MojoExecutionException( "Unable to update SWC digest: " + e.getMessage(), e );
             }
         }
 
+        saveState( swc, state );
+
         getLog().debug( "attaching Artifact " );
         projectHelper.attachArtifact( project, SWF, new File( getOutput() ) );
 
     }
 
-    protected File optimize( File input )
-        throws MojoFailureException, MojoExecutionException
+    protected File getStateDirectory()
+    {
+        return new File( build.getDirectory(), "rsl" );
+    }
+
+    /**
+     * @return what identifies this RSL build: the SWC content, the optimizer settings and the compiler version
+     */
+    protected Properties getState( File swc )
+        throws MojoExecutionException
     {
-        if ( optimizeRsl )
+        Properties state = new Properties();
+        try
+        {
+            state.setProperty( SWC_HASH, DigestUtil.sha256( swc ) );
+        }
+        catch ( IOException e )
         {
-            getLog().debug( "Optimizing" );
-            final File output = new File( project.getBuild().getOutputDirectory(), "optimized.swf" );
-            optimize( input, output );
-            input = output;
+            throw new MojoExecutionException( "Unable to hash " + swc, e );
         }
-        return input;
+        state.setProperty( SETTINGS, getSettingsDescription() + ";updateSwcDigest=" + updateSwcDigest );
+        state.setProperty( COMPILER_VERSION, getCompilerVersion() );
+        return state;
     }
 
-    public IDigestConfiguration getDigestConfiguration( final File input )
+    /**
+     * The SWC handed over by the compiler has no RSL digest yet, so it is compared against the SWC hash recorded before
+     * the digest ran. On a match, the digested SWC kept from that build replaces it.
+     */
+    protected boolean isUpToDate( File swc, Properties state )
+        throws MojoExecutionException
     {
-        return new IDigestConfiguration()
+        File stateFile = new File( getStateDirectory(), STATE_FILE );
+        if ( !stateFile.exists() || !new File( getOutput() ).exists() )
         {
+            return false;
+        }
 
-            public File getSwcPath()
+        Properties previous = new Properties();
+        try
+        {
+            InputStream in = new FileInputStream( stateFile );
+            try
+            {
+                previous.load( in );
+            }
+            finally
             {
-                return project.getArtifact().getFile();
+                IOUtil.close( in );
             }
+        }
+        catch ( IOException e )
+        {
+            getLog().debug( "Unable to read " + stateFile, e );
+            return false;
+        }
+
+        if ( !state.getProperty( SETTINGS ).equals( previous.getProperty( SETTINGS ) )
+            || !state.getProperty( COMPILER_VERSION ).equals( previous.getProperty( COMPILER_VERSION ) ) )
+        {
+            return false;
+        }
+
+        String hash = state.getProperty( SWC_HASH );
+        if ( hash.equals( previous.getProperty( DIGESTED_SWC_HASH ) ) )
+        {
+            return true;
+        }
+        if ( !hash.equals( previous.getProperty( SWC_HASH ) ) )
+        {
+            return false;
+        }
 
-            public Boolean getSigned()
+        if ( updateSwcDigest )
+        {
+            File digested = new File( getStateDirectory(), DIGESTED_SWC );
+            if ( !digested.exists() )
             {
                 return false;
             }
+            try
+            {
+                FileUtils.copyFile( digested, swc );
+            }
+            catch ( IOException e )
+            {
+                throw new MojoExecutionException( "Unable to restore digested SWC " + digested, e );
+            }
+        }
+        return true;
+    }
+
+    protected void saveState( File swc, Properties state )
+        throws MojoExecutionException
+    {
+        File stateDirectory = getStateDirectory();
+        stateDirectory.mkdirs();
+        try
+        {
+            state.setProperty( DIGESTED_SWC_HASH, DigestUtil.sha256( swc ) );
+            if ( updateSwcDigest )
+            {
+                FileUtils.copyFile( swc, new File( stateDirectory, DIGESTED_SWC ) );
+            }
+
+            OutputStream out = new FileOutputStream( new File( stateDirectory, STATE_FILE ) );
+            try
+            {
+                state.store( out, "RSL creation state" );
+            }
+            finally
+            {
+                IOUtil.close( out );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new MojoExecutionException( "Unable to save RSL creation state", e );
+        }
+    }
 
-            public File getRslFile()
+    @Override
+    protected boolean isOptimizerEnabled()
+    {
+        return optimizeRsl;
+    }
+
+    /**
+     * Hashes the RSL while it is copied into place, so the digest doesn't need another read.
+     */
+    @Override
+    protected void copy( File input, File output )
+        throws IOException
+    {
+        InputStream in = new BufferedInputStream( new FileInputStream( input ) );
+        try
+        {
+            OutputStream out = new BufferedOutputStream( new FileOutputStream( output ) );
+            try
             {
-                return input;
+                rslDigest = DigestUtil.copy( in, out );
+                rslDigestFile = output;
             }
-        };
+            finally
+            {
+                IOUtil.close( out );
+            }
+        }
+        finally
+        {
+            IOUtil.close( in );
+        }
     }
 
     @Override
@@ -175,13 +328,29 @@ public class RSLCreatorMojo
         try
         {
             ZipFile zipFile = new ZipFile( originalFile );
-            ZipEntry entry = zipFile.getEntry( "library.swf" );
-            if ( entry == null )
+            try
+            {
+                ZipEntry entry = zipFile.getEntry( CatalogDigestUpdater.LIBRARY );
+                if ( entry == null )
+                {
+                    throw new MavenRuntimeException( "Invalid SWC file. Library.swf not found. " + originalFile );
+                }
+                InputStream inputSWF = new BufferedInputStream( zipFile.getInputStream( entry ) );
+                OutputStream outputSWF = new BufferedOutputStream( new FileOutputStream( bkpOriginalFile ) );
+                try
+                {
+                    rslDigest = DigestUtil.copy( inputSWF, outputSWF );
+                    rslDigestFile = PathUtil.file( bkpOriginalFile );
+                }
+                finally
+                {
+                    IOUtil.close( outputSWF );
+                }
+            }
+            finally
             {
-                throw new MavenRuntimeException( "Invalid SWC file. Library.swf not found. " + originalFile );
+                zipFile.close();
             }
-            InputStream inputSWF = zipFile.getInputStream( entry );
-            IOUtil.copy( inputSWF, new FileOutputStream( bkpOriginalFile ) );
         }
         catch ( Exception e )
         {
@@ -21,7 +21,11 @@ import static net.flexmojos.oss.plugin.common.FlexExtension.SWF;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
 
+import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
 import org.codehaus.plexus.util.FileUtils;
@@ -55,6 +59,14 @@ public class SwfOptimizerMojo
      */
     private String originalClassifierName;
 
+    /**
+     * When true, SWF artifacts attached by the compiler (modules and runtime locales) are optimized as well. The main
+     * SWF and the attached ones are optimized concurrently, bounded by the available processors.
+     * 
+     * @parameter default-value="false" expression="${flex.optimizeModules}"
+     */
+    private boolean optimizeModules;
+
     public void execute()
         throws MojoExecutionException, MojoFailureException
     {
@@ -66,7 +78,51 @@ public class SwfOptimizerMojo
             return;
         }
 
-        optimize();
+        // both touch the project, which isn't thread safe, so they run here rather than on the pool
+        List<Artifact> modules = optimizeModules ? getAttachedSwfs() : new ArrayList<Artifact>();
+        final File input = PathUtil.file( getInput() );
+        final File output = PathUtil.file( getOutput() );
+        final File workDirectory = new File( build.getOutputDirectory() );
+
+        List<Callable<File>> optimizations = new ArrayList<Callable<File>>();
+        for ( final Artifact module : modules )
+        {
+            optimizations.add( new Callable<File>()
+            {
+                public File call()
+                    throws Exception
+                {
+                    File moduleDirectory = new File( build.getDirectory(), "optimizer/" + module.getClassifier() );
+                    moduleDirectory.mkdirs();
+                    return optimize( module.getFile(), module.getFile(), moduleDirectory );
+                }
+            } );
+        }
+
+        optimizations.add( new Callable<File>()
+        {
+            public File call()
+                throws Exception
+            {
+                return optimize( input, output, workDirectory );
+            }
+        } );
+
+        optimize( optimizations );
+    }
+
+    protected List<Artifact> getAttachedSwfs()
+    {
+        List<Artifact> swfs = new ArrayList<Artifact>();
+        for ( Artifact artifact : project.getAttachedArtifacts() )
+        {
+            if ( SWF.equals( artifact.getType() ) && artifact.getFile() != null
+                && !originalClassifierName.equals( artifact.getClassifier() ) )
+            {
+                swfs.add( artifact );
+            }
+        }
+        return swfs;
     }
 
     @Override
@@ -104,13 +160,8 @@ public class SwfOptimizerMojo
     }
 
     @Override
-    protected File optimize( File input )
-        throws MojoFailureException, MojoExecutionException
+    protected boolean isOptimizerEnabled()
     {
-        getLog().debug( "Optimizing" );
-        final File output = new File( project.getBuild().getOutputDirectory(), "optimized.swf" );
-        optimize( input, output );
-
-        return output;
+        return true;
     }
 }
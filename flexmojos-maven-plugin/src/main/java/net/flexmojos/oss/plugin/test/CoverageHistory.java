@@ -0,0 +1,245 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.test;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import org.codehaus.plexus.util.IOUtil;
+
+/**
+ * Lines touched by each test runner, kept from one build to the next. Used to run the test runners that add the most
+ * coverage first and to tell when the remaining runners can no longer change a coverage threshold result.
+ */
+public class CoverageHistory
+{
+
+    private final File file;
+
+    /**
+     * swf -> classname -> touched lines
+     */
+    private final Map<String, Map<String, BitSet>> runs = new TreeMap<String, Map<String, BitSet>>();
+
+    /**
+     * classname -> lines touched on this build
+     */
+    private final Map<String, BitSet> covered = new HashMap<String, BitSet>();
+
+    public CoverageHistory( File file )
+    {
+        this.file = file;
+    }
+
+    public void load()
+        throws IOException
+    {
+        if ( !file.isFile() )
+        {
+            return;
+        }
+
+        BufferedReader reader = new BufferedReader( new FileReader( file ) );
+        try
+        {
+            String line;
+            while ( ( line = reader.readLine() ) != null )
+            {
+                String[] parts = line.split( "\t" );
+                if ( parts.length != 3 )
+                {
+                    continue;
+                }
+
+                BitSet lines = getLines( getRun( parts[0] ), parts[1] );
+                for ( String number : parts[2].split( "," ) )
+                {
+                    lines.set( Integer.parseInt( number ) );
+                }
+            }
+        }
+        catch ( NumberFormatException e )
+        {
+            // corrupted history, start over
+            runs.clear();
+        }
+        finally
+        {
+            IOUtil.close( reader );
+        }
+    }
+
+    public void save()
+        throws IOException
+    {
+        file.getParentFile().mkdirs();
+        BufferedWriter writer = new BufferedWriter( new FileWriter( file ) );
+        try
+        {
+            for ( Entry<String, Map<String, BitSet>> run : runs.entrySet() )
+            {
+                for ( Entry<String, BitSet> classLines : run.getValue().entrySet() )
+                {
+                    BitSet lines = classLines.getValue();
+                    if ( lines.isEmpty() )
+                    {
+                        continue;
+                    }
+
+                    writer.write( run.getKey() );
+                    writer.write( '\t' );
+                    writer.write( classLines.getKey() );
+                    writer.write( '\t' );
+                    String sep = "";
+                    for ( int i = lines.nextSetBit( 0 ); i >= 0; i = lines.nextSetBit( i + 1 ) )
+                    {
+                        writer.write( sep );
+                        writer.write( String.valueOf( i ) );
+                        sep = ",";
+                    }
+                    writer.newLine();
+                }
+            }
+        }
+        finally
+        {
+            IOUtil.close( writer );
+        }
+    }
+
+    /**
+     * Forget what a test runner touched on previous builds, before it runs again.
+     */
+    public void reset( String swf )
+    {
+        runs.remove( swf );
+    }
+
+    public void touch( String swf, String classname, Integer[] touchs )
+    {
+        BitSet run = getLines( getRun( swf ), classname );
+        BitSet lines = getLines( covered, classname );
+        for ( Integer touch : touchs )
+        {
+            run.set( touch );
+            lines.set( touch );
+        }
+    }
+
+    /**
+     * Removes and returns the test runner expected to add most lines to the ones already covered. Runners without
+     * history come first, as nothing is known about them.
+     */
+    public String next( List<String> pending )
+    {
+        String best = null;
+        int bestGain = -1;
+        for ( String swf : pending )
+        {
+            if ( !runs.containsKey( swf ) )
+            {
+                best = swf;
+                break;
+            }
+
+            int gain = gain( runs.get( swf ) );
+            if ( gain > bestGain )
+            {
+                best = swf;
+                bestGain = gain;
+            }
+        }
+
+        pending.remove( best );
+        return best;
+    }
+
+    /**
+     * @return how many lines, not covered yet, the pending test runners touched on previous builds, or -1 when any of
+     *         them has no history
+     */
+    public int reachable( Collection<String> pending )
+    {
+        Map<String, BitSet> union = new HashMap<String, BitSet>();
+        for ( String swf : pending )
+        {
+            Map<String, BitSet> run = runs.get( swf );
+            if ( run == null )
+            {
+                return -1;
+            }
+
+            for ( Entry<String, BitSet> classLines : run.entrySet() )
+            {
+                getLines( union, classLines.getKey() ).or( classLines.getValue() );
+            }
+        }
+
+        return gain( union );
+    }
+
+    private int gain( Map<String, BitSet> run )
+    {
+        int gain = 0;
+        for ( Entry<String, BitSet> classLines : run.entrySet() )
+        {
+            BitSet lines = (BitSet) classLines.getValue().clone();
+            BitSet done = covered.get( classLines.getKey() );
+            if ( done != null )
+            {
+                lines.andNot( done );
+            }
+            gain += lines.cardinality();
+        }
+        return gain;
+    }
+
+    private Map<String, BitSet> getRun( String swf )
+    {
+        Map<String, BitSet> run = runs.get( swf );
+        if ( run == null )
+        {
+            run = new TreeMap<String, BitSet>();
+            runs.put( swf, run );
+        }
+        return run;
+    }
+
+    private static BitSet getLines( Map<String, BitSet> map, String classname )
+    {
+        BitSet lines = map.get( classname );
+        if ( lines == null )
+        {
+            lines = new BitSet();
+            map.put( classname, lines );
+        }
+        return lines;
+    }
+
+}
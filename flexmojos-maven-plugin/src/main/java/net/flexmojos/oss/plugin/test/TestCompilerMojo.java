@@ -350,6 +350,7 @@ public class TestCompilerMojo
         IOUtils.write( sourceString, fileWriter );
         fileWriter.flush();
         fileWriter.close();
+        written( testSourceFile );
         return testSourceFile;
     }
 
@@ -34,6 +34,7 @@ import org.apache.velocity.texen.util.FileUtil;
 import org.codehaus.plexus.util.DirectoryScanner;
 import org.codehaus.plexus.util.FileUtils;
 import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
 import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
 import net.flexmojos.oss.coverage.CoverageReportException;
@@ -46,6 +47,7 @@ import net.flexmojos.oss.test.TestRequest;
 import net.flexmojos.oss.test.TestRunner;
 import net.flexmojos.oss.test.TestRunnerException;
 import net.flexmojos.oss.test.launcher.LaunchFlashPlayerException;
+import net.flexmojos.oss.test.monitor.CommConstraints;
 import net.flexmojos.oss.test.report.TestCaseReport;
 import net.flexmojos.oss.test.report.TestCoverageReport;
 import net.flexmojos.oss.util.PathUtil;
@@ -111,6 +113,31 @@ public class TestRunMojo
      */
     private File coverageDataDirectory;
 
+    /**
+     * Skip the remaining test runners as soon as the coverage threshold result is known: when the runners left can't
+     * reach <code>coverageLineRate</code> (according to the coverage they had on previous builds) or, with
+     * <code>coverageThresholdOnly</code>, once the threshold is met.
+     * 
+     * @parameter default-value="false" expression="${flex.coverageEarlyExit}"
+     */
+    private boolean coverageEarlyExit;
+
+    /**
+     * Minimum line coverage, in percent, the tests must reach. When set, test runners are ordered by the coverage they
+     * are expected to add (based on previous builds) and the build fails if the rate isn't reached.
+     * 
+     * @parameter expression="${flex.coverageLineRate}"
+     */
+    private Integer coverageLineRate;
+
+    /**
+     * Used with <code>coverageEarlyExit</code> when the build only needs to verify the coverage threshold. Remaining
+     * test runners are skipped once it is met, so their failures aren't reported.
+     * 
+     * @parameter default-value="false" expression="${flex.coverageThresholdOnly}"
+     */
+    private boolean coverageThresholdOnly;
+
     /**
      * Location to write coverage report
      * 
@@ -146,12 +173,21 @@ public class TestRunMojo
     private CoverageReporterManager coverageReporterManager;
 
     /**
-     * The coverage report format. Can be 'html', 'xml' and/or 'summaryXml'. Default value is 'html'.
+     * The coverage report format. Can be 'html', 'xml' and/or 'summaryXml' for cobertura, 'html', 'xml' and/or 'txt'
+     * for emma. Default value is 'html'.
      * 
      * @parameter
      */
     protected List<String> coverageReportFormat = Collections.singletonList( "html" );
 
+    /**
+     * When true only the coverage summary is written (cobertura 'summaryXml', emma 'xml'), skipping the html pages.
+     * Intended for CI builds that only consume the numbers.
+     * 
+     * @parameter default-value="false" expression="${flex.coverageSummaryOnly}"
+     */
+    private boolean coverageSummaryOnly;
+
     /**
      * The maven compile source roots. List of path elements that form the roots of ActionScript class
      * 
@@ -161,6 +197,8 @@ public class TestRunMojo
      */
     private List<String> coverageSourceRoots;
 
+    private CoverageHistory coverageHistory;
+
     private Throwable executionError;
 
     private boolean failures = false;
@@ -180,6 +218,8 @@ public class TestRunMojo
      */
     private String flashPlayerCommand;
 
+    private Double lineRate;
+
     private int numErrors;
 
     private int numFailures;
@@ -318,9 +358,14 @@ public class TestRunMojo
                     new CoverageReportRequest( coverageDataDirectory, coverageReportFormat, coverageReportEncoding,
                                                coverageOutputDirectory, 
                                                new File( project.getBuild().getSourceDirectory() ) );
+                request.setSummaryOnly( coverageSummaryOnly );
                 try
                 {
                     reporter.generateReport( request );
+                    if ( reporter.getNumberOfValidLines() > 0 )
+                    {
+                        lineRate = 100d * reporter.getNumberOfCoveredLines() / reporter.getNumberOfValidLines();
+                    }
                     File index = new File(coverageOutputDirectory.getAbsolutePath() + "/index.html");
                     if(index.exists())
                     	FileUtils.copyFile(index, new File(coverageOutputDirectory.getAbsolutePath() + "/index.bak.html"));
@@ -365,24 +410,25 @@ public class TestRunMojo
             testRequest.setFlashplayerCommand( flashPlayerCommand );
         }
 
-        if ( coverage )
-        {
-            reporter.instrument( swf, getSourcePath() );
-        }
-
         try
         {
             List<String> results = runTest( testRequest );
             for ( String result : results )
             {
-                TestCaseReport report = writeTestReport( result );
-                if ( coverage )
+                if ( result.endsWith( CommConstraints.END_OF_COVERAGE_DATA ) )
                 {
-                    List<TestCoverageReport> coverageResult = report.getCoverage();
-                    for ( TestCoverageReport testCoverageReport : coverageResult )
+                    // coverage flushed by the testrunner while tests were still running
+                    if ( coverage )
                     {
-                        reporter.addResult( testCoverageReport.getClassname(), testCoverageReport.getTouchs() );
+                        addCoverage( swfName, reporter, readCoverageData( result ) );
                     }
+                    continue;
+                }
+
+                TestCaseReport report = writeTestReport( result );
+                if ( coverage )
+                {
+                    addCoverage( swfName, reporter, report.getCoverage() );
                 }
             }
         }
@@ -401,6 +447,44 @@ public class TestRunMojo
         }
     }
 
+    private void addCoverage( String swfName, CoverageReporter reporter, List<TestCoverageReport> coverageResult )
+    {
+        for ( TestCoverageReport testCoverageReport : coverageResult )
+        {
+            reporter.addResult( testCoverageReport.getClassname(), testCoverageReport.getTouchs() );
+            if ( coverageHistory != null )
+            {
+                coverageHistory.touch( swfName, testCoverageReport.getClassname(), testCoverageReport.getTouchs() );
+            }
+        }
+    }
+
+    private List<TestCoverageReport> readCoverageData( String data )
+        throws MojoExecutionException
+    {
+        Xpp3Dom dom;
+        try
+        {
+            dom = Xpp3DomBuilder.build( new StringReader( data ) );
+        }
+        catch ( XmlPullParserException e )
+        {
+            throw new MojoExecutionException( "Invalid coverage data: " + e.getMessage(), e );
+        }
+        catch ( IOException e )
+        {
+            // should never happen
+            throw new MojoExecutionException( e.getMessage(), e );
+        }
+
+        List<TestCoverageReport> coverageResult = new ArrayList<TestCoverageReport>();
+        for ( Xpp3Dom child : dom.getChildren( "coverage" ) )
+        {
+            coverageResult.add( new TestCoverageReport( child ) );
+        }
+        return coverageResult;
+    }
+
     public List<String> runTest( TestRequest testRequest )
         throws TestRunnerException, LaunchFlashPlayerException
     {
@@ -425,10 +509,81 @@ public class TestRunMojo
         }
         getLog().debug( "Found " + swfs.length + " test runners:\n" + Arrays.toString( swfs ) );
         getLog().debug( "Using test port '" + testPort + "' and test control port '" + testControlPort + "'" );
-        for ( String swfName : swfs )
+
+        if ( coverage )
         {
+            // all runners are instrumented up front so the total of valid lines is known before the first one runs
+            for ( String swfName : swfs )
+            {
+                reporter.instrument( new File( testOutputDirectory, swfName ), getSourcePath() );
+            }
+
+            if ( coverageLineRate != null )
+            {
+                coverageHistory = new CoverageHistory( new File( coverageDataDirectory, "coverage-history.txt" ) );
+                try
+                {
+                    coverageHistory.load();
+                }
+                catch ( IOException e )
+                {
+                    getLog().warn( "Unable to read coverage history, tests will run on default order", e );
+                }
+            }
+        }
+
+        List<String> pending = new ArrayList<String>( Arrays.asList( swfs ) );
+        while ( !pending.isEmpty() )
+        {
+            if ( coverageHistory != null && coverageEarlyExit && isCoverageResultKnown( reporter, pending ) )
+            {
+                getLog().info( "Coverage threshold result is already known, skipping " + pending.size()
+                                   + " test runners: " + pending );
+                break;
+            }
+
+            String swfName;
+            if ( coverageHistory != null )
+            {
+                swfName = coverageHistory.next( pending );
+                coverageHistory.reset( swfName );
+            }
+            else
+            {
+                swfName = pending.remove( 0 );
+            }
             runTest( swfName, testPort, testControlPort, reporter );
         }
+
+        if ( coverageHistory != null )
+        {
+            try
+            {
+                coverageHistory.save();
+            }
+            catch ( IOException e )
+            {
+                getLog().warn( "Unable to save coverage history", e );
+            }
+        }
+    }
+
+    private boolean isCoverageResultKnown( CoverageReporter reporter, List<String> pending )
+    {
+        int valid = reporter.getNumberOfValidLines();
+        if ( valid == 0 )
+        {
+            return false;
+        }
+
+        int covered = reporter.getNumberOfCoveredLines();
+        if ( coverageThresholdOnly && 100d * covered / valid >= coverageLineRate )
+        {
+            return true;
+        }
+
+        int reachable = coverageHistory.reachable( pending );
+        return reachable != -1 && 100d * ( covered + reachable ) / valid < coverageLineRate;
     }
 
     protected void tearDown()
@@ -464,6 +619,15 @@ public class TestRunMojo
             }
         }
 
+        if ( coverageLineRate != null && lineRate != null )
+        {
+            getLog().info( "Line coverage: " + lineRate.intValue() + "% (threshold " + coverageLineRate + "%)" );
+            if ( lineRate < coverageLineRate )
+            {
+                throw new MojoFailureException( "Line coverage " + lineRate.intValue()
+                    + "% is below the threshold of " + coverageLineRate + "%" );
+            }
+        }
     }
 
     /**
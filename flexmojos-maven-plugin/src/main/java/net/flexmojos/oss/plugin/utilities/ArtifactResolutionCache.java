@@ -0,0 +1,178 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.ArtifactUtils;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Resolves artifacts at most once per build session and set of remote repositories. Concurrent requests for the same
+ * artifact share a single resolution. Failures are remembered too, so a missing artifact is only looked up once, while a
+ * module declaring other repositories still gets its own attempt.
+ */
+public class ArtifactResolutionCache
+{
+
+    /**
+     * Resolves a single artifact, filling in its file. Failures are reported by throwing.
+     */
+    public interface Resolver
+    {
+        Artifact resolve( Artifact artifact )
+            throws Exception;
+    }
+
+    public static ArtifactResolutionCache forSession( MavenSession session )
+    {
+        String name = ArtifactResolutionCache.class.getName();
+        return new ArtifactResolutionCache( SessionCache.<String, File> forSession( session, name, true ) );
+    }
+
+    private final SessionCache<String, File> files;
+
+    public ArtifactResolutionCache()
+    {
+        this( new SessionCache<String, File>( true ) );
+    }
+
+    private ArtifactResolutionCache( SessionCache<String, File> files )
+    {
+        this.files = files;
+    }
+
+    /**
+     * @return artifact itself, with the resolved file
+     */
+    public Artifact resolve( Artifact artifact, List<ArtifactRepository> repositories, Resolver resolver )
+    {
+        String key = key( artifact, repositories );
+        return resolved( artifact, files.get( key, lookup( artifact, resolver ) ) );
+    }
+
+    /**
+     * Resolves all artifacts using up to <code>threads</code> concurrent lookups. Every lookup is waited for before the
+     * first failure, in request order, is thrown.
+     * 
+     * @return the given artifacts, with the resolved files, in the same order as requested
+     */
+    public List<Artifact> resolve( Collection<Artifact> artifacts, List<ArtifactRepository> repositories,
+                                   Resolver resolver, int threads )
+    {
+        List<String> keys = new ArrayList<String>();
+        List<FutureTask<File>> tasks = new ArrayList<FutureTask<File>>();
+        for ( Artifact artifact : artifacts )
+        {
+            String key = key( artifact, repositories );
+            keys.add( key );
+            tasks.add( files.register( key, lookup( artifact, resolver ) ) );
+        }
+
+        if ( threads > 1 && tasks.size() > 1 )
+        {
+            ExecutorService executor = Executors.newFixedThreadPool( Math.min( threads, tasks.size() ) );
+            try
+            {
+                for ( FutureTask<File> task : tasks )
+                {
+                    // tasks already done or running elsewhere return immediately
+                    executor.execute( task );
+                }
+                for ( FutureTask<File> task : tasks )
+                {
+                    try
+                    {
+                        task.get();
+                    }
+                    catch ( ExecutionException e )
+                    {
+                        // kept by the task, thrown below once every lookup is done
+                    }
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( "Interrupted while resolving artifacts", e );
+            }
+            finally
+            {
+                // tasks are shared with other callers, so they are left to finish rather than interrupted
+                executor.shutdown();
+            }
+        }
+
+        List<Artifact> resolved = new ArrayList<Artifact>();
+        int i = 0;
+        for ( Artifact artifact : artifacts )
+        {
+            resolved.add( resolved( artifact, files.get( keys.get( i ), tasks.get( i ) ) ) );
+            i++;
+        }
+        return resolved;
+    }
+
+    private String key( Artifact artifact, List<ArtifactRepository> repositories )
+    {
+        Set<String> urls = new TreeSet<String>();
+        if ( repositories != null )
+        {
+            for ( ArtifactRepository repository : repositories )
+            {
+                urls.add( repository.getId() + "=" + repository.getUrl() );
+            }
+        }
+        return artifact.getId() + " " + urls;
+    }
+
+    /**
+     * Resolves a copy, so callers never share, or see each other change, an artifact instance.
+     */
+    private Callable<File> lookup( final Artifact artifact, final Resolver resolver )
+    {
+        return new Callable<File>()
+        {
+            public File call()
+                throws Exception
+            {
+                return resolver.resolve( ArtifactUtils.copyArtifact( artifact ) ).getFile();
+            }
+        };
+    }
+
+    private Artifact resolved( Artifact artifact, File file )
+    {
+        artifact.setFile( file );
+        artifact.setResolved( true );
+        return artifact;
+    }
+
+}
@@ -0,0 +1,191 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+
+import org.codehaus.plexus.archiver.UnArchiver;
+import org.codehaus.plexus.archiver.manager.ArchiverManager;
+import org.codehaus.plexus.util.FileUtils;
+import net.flexmojos.oss.util.DigestUtil;
+import net.flexmojos.oss.util.PathUtil;
+
+/**
+ * Extracts archives next to themselves, once. A marker holding the archive hash, size and timestamp tells later
+ * builds, and other mojos of this build, that the extraction is complete and current. The archive is only hashed when
+ * its size or timestamp no longer match the marker.
+ */
+public class ArtifactUnpacker
+{
+
+    private static final String UNPACKED_MARKER = ".flexmojos-unpacked";
+
+    private static final Object UNPACK_LOCK = new Object();
+
+    /**
+     * @param archive file to extract
+     * @param dirName name of the directory, created next to the archive, that receives the content
+     * @return the directory holding the extracted content
+     */
+    public static File unpack( File archive, String dirName, ArchiverManager archiverManager )
+        throws Exception
+    {
+        File dir = new File( archive.getParentFile(), dirName );
+        File marker = new File( dir, UNPACKED_MARKER );
+
+        if ( isUnpacked( marker, archive ) )
+        {
+            return dir;
+        }
+
+        String hash = DigestUtil.sha256( archive );
+
+        // one lock for this jvm, since file locks are held per process, and a file lock for other builds
+        synchronized ( UNPACK_LOCK )
+        {
+            File lockPath = new File( dir.getParentFile(), dirName + ".lock" );
+            RandomAccessFile lockFile = new RandomAccessFile( lockPath, "rw" );
+            try
+            {
+                FileLock lock = lockFile.getChannel().lock();
+                try
+                {
+                    if ( !isUnpacked( marker, archive, hash ) )
+                    {
+                        extract( archive, dir, hash, archiverManager );
+                    }
+                }
+                finally
+                {
+                    lock.release();
+                }
+            }
+            finally
+            {
+                lockFile.close();
+                // a build waiting on the deleted lock may extract again, which never replaces a current extraction
+                lockPath.delete();
+            }
+        }
+
+        return dir;
+    }
+
+    /**
+     * @return the marker lines: hash, size and timestamp. Null when there is no marker.
+     */
+    private static String[] readMarker( File marker )
+        throws IOException
+    {
+        return marker.isFile() ? FileUtils.fileRead( marker ).trim().split( "\n" ) : null;
+    }
+
+    private static String marker( File archive, String hash )
+    {
+        return hash + "\n" + archive.length() + "\n" + archive.lastModified();
+    }
+
+    /**
+     * Tells from the archive size and timestamp alone, without hashing it
+     */
+    private static boolean isUnpacked( File marker, File archive )
+        throws IOException
+    {
+        String[] lines = readMarker( marker );
+        return lines != null && lines.length == 3 && lines[1].equals( String.valueOf( archive.length() ) )
+            && lines[2].equals( String.valueOf( archive.lastModified() ) );
+    }
+
+    /**
+     * An archive touched but not changed keeps its extraction, the marker takes its new size and timestamp
+     */
+    private static boolean isUnpacked( File marker, File archive, String hash )
+        throws IOException
+    {
+        String[] lines = readMarker( marker );
+        if ( lines == null || !hash.equals( lines[0] ) )
+        {
+            return false;
+        }
+
+        if ( !isUnpacked( marker, archive ) )
+        {
+            FileUtils.fileWrite( marker.getAbsolutePath(), marker( archive, hash ) );
+        }
+        return true;
+    }
+
+    /**
+     * Extracts next to dir and renames the complete result into place, so dir never holds a partial extraction. The
+     * marker written last records which archive it came from.
+     */
+    private static void extract( File archive, File dir, String hash, ArchiverManager archiverManager )
+        throws Exception
+    {
+        File parent = dir.getParentFile();
+        File tmp = new File( parent, dir.getName() + "." + System.nanoTime() + ".tmp" );
+        tmp.mkdirs();
+        try
+        {
+            UnArchiver unarchive = archiverManager.getUnArchiver( archive );
+            unarchive.setSourceFile( archive );
+            unarchive.setDestDirectory( tmp );
+            unarchive.extract();
+            FileUtils.fileWrite( new File( tmp, UNPACKED_MARKER ).getAbsolutePath(), marker( archive, hash ) );
+
+            if ( isUnpacked( new File( dir, UNPACKED_MARKER ), archive, hash ) )
+            {
+                // extracted meanwhile by a build that didn't wait on the same lock
+                return;
+            }
+
+            if ( dir.exists() )
+            {
+                // left over by an interrupted or older extraction
+                File stale = new File( parent, dir.getName() + "." + System.nanoTime() + ".stale" );
+                if ( !dir.renameTo( stale ) )
+                {
+                    throw new IOException( "Unable to replace incomplete extraction " + dir );
+                }
+                FileUtils.deleteDirectory( stale );
+            }
+
+            if ( !tmp.renameTo( dir ) )
+            {
+                throw new IOException( "Unable to move extracted " + archive + " to " + dir );
+            }
+            PathUtil.invalidate( dir );
+        }
+        finally
+        {
+            if ( tmp.exists() )
+            {
+                FileUtils.deleteDirectory( tmp );
+            }
+        }
+    }
+
+    private ArtifactUnpacker()
+    {
+        super();
+    }
+
+}
@@ -0,0 +1,421 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.execution.MavenSession;
+import org.codehaus.plexus.util.AbstractScanner;
+import org.codehaus.plexus.util.SelectorUtils;
+
+import net.flexmojos.oss.util.PathUtil;
+
+/**
+ * Snapshot of all files below a directory, walked once per build and then queried with include/exclude patterns
+ * from memory. Matching follows {@link org.codehaus.plexus.util.DirectoryScanner}: case sensitive, no includes means
+ * everything, and a pattern ending with a separator matches the whole subtree.
+ */
+public class DirectorySnapshot
+{
+
+    private static final String[] EVERYTHING = { "**" };
+
+    /**
+     * @return the snapshot of <code>directory</code>, walking it on first use in this build
+     */
+    public static DirectorySnapshot of( MavenSession session, File directory )
+    {
+        return of( snapshots( session ), directory );
+    }
+
+    /**
+     * Forgets the snapshots holding a file or directory the build has just written, the next query walks them again.
+     */
+    public static void invalidate( MavenSession session, File written )
+    {
+        invalidate( snapshots( session ), written );
+    }
+
+    private static SessionCache<File, DirectorySnapshot> snapshots( MavenSession session )
+    {
+        return SessionCache.forSession( session, DirectorySnapshot.class.getName() );
+    }
+
+    static DirectorySnapshot of( SessionCache<File, DirectorySnapshot> snapshots, File directory )
+    {
+        final File root = PathUtil.file( directory );
+        return snapshots.get( root, new Callable<DirectorySnapshot>()
+        {
+            public DirectorySnapshot call()
+            {
+                DirectorySnapshot snapshot = new DirectorySnapshot( root );
+                snapshot.walk();
+                return snapshot;
+            }
+        } );
+    }
+
+    static void invalidate( SessionCache<File, DirectorySnapshot> snapshots, File written )
+    {
+        if ( written == null )
+        {
+            return;
+        }
+
+        String path = PathUtil.path( written );
+        for ( File root : snapshots.keySet() )
+        {
+            String rootPath = root.getPath();
+            if ( path.equals( rootPath ) || path.startsWith( rootPath + File.separator )
+                || rootPath.startsWith( path + File.separator ) )
+            {
+                snapshots.remove( root );
+            }
+        }
+    }
+
+    private final File root;
+
+    private List<String> paths;
+
+    private List<String[]> tokens;
+
+    private DirectorySnapshot( File root )
+    {
+        this.root = root;
+    }
+
+    public File getRoot()
+    {
+        return root;
+    }
+
+    /**
+     * @return included file paths, relative to the root and sorted
+     */
+    public String[] getIncludedFiles( Collection<String> includes, Collection<String> excludes,
+                                      boolean defaultExcludes )
+    {
+        List<Pattern> included = compile( includes == null || includes.isEmpty() ? Arrays.asList( EVERYTHING )
+                        : includes );
+        List<String> excluded = new ArrayList<String>();
+        if ( excludes != null )
+        {
+            excluded.addAll( excludes );
+        }
+        if ( defaultExcludes )
+        {
+            excluded.addAll( Arrays.asList( AbstractScanner.DEFAULTEXCLUDES ) );
+        }
+        List<Pattern> excludedPatterns = compile( excluded );
+
+        List<String> files = new ArrayList<String>();
+        for ( int i = 0; i < paths.size(); i++ )
+        {
+            if ( matches( included, paths.get( i ), tokens.get( i ) )
+                && !matches( excludedPatterns, paths.get( i ), tokens.get( i ) ) )
+            {
+                files.add( paths.get( i ) );
+            }
+        }
+        return files.toArray( new String[files.size()] );
+    }
+
+    private synchronized void walk()
+    {
+        if ( paths != null )
+        {
+            return;
+        }
+
+        List<String> found = Collections.synchronizedList( new ArrayList<String>() );
+        if ( root.isDirectory() )
+        {
+            ExecutorService executor = Executors.newFixedThreadPool( Runtime.getRuntime().availableProcessors() );
+            try
+            {
+                Queue<Future<?>> pending = new ConcurrentLinkedQueue<Future<?>>();
+                pending.add( list( executor, pending, found, root, "" ) );
+                // directories queue their subdirectories, so wait until no walk is left
+                Future<?> next;
+                while ( ( next = pending.poll() ) != null )
+                {
+                    next.get();
+                }
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( "Interrupted while scanning " + root, e );
+            }
+            catch ( ExecutionException e )
+            {
+                throw new IllegalStateException( "Failed to scan " + root, e.getCause() );
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+        }
+
+        List<String> sorted = new ArrayList<String>( found );
+        Collections.sort( sorted );
+        List<String[]> split = new ArrayList<String[]>( sorted.size() );
+        for ( String path : sorted )
+        {
+            split.add( tokenize( path ) );
+        }
+        tokens = split;
+        paths = sorted;
+    }
+
+    private static Future<?> list( final ExecutorService executor, final Queue<Future<?>> pending,
+                                   final List<String> found, final File dir, final String prefix )
+    {
+        return executor.submit( new Runnable()
+        {
+            public void run()
+            {
+                File[] children = dir.listFiles();
+                if ( children == null )
+                {
+                    return;
+                }
+
+                for ( File child : children )
+                {
+                    String path = prefix + child.getName();
+                    if ( child.isDirectory() )
+                    {
+                        pending.add( list( executor, pending, found, child, path + File.separator ) );
+                    }
+                    else
+                    {
+                        found.add( path );
+                    }
+                }
+            }
+        } );
+    }
+
+    private static boolean matches( List<Pattern> patterns, String path, String[] tokens )
+    {
+        for ( Pattern pattern : patterns )
+        {
+            if ( pattern.matches( path, tokens ) )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Pattern> compile( Collection<String> patterns )
+    {
+        List<Pattern> compiled = new ArrayList<Pattern>();
+        for ( String pattern : patterns )
+        {
+            compiled.add( new Pattern( pattern ) );
+        }
+        return compiled;
+    }
+
+    private static String[] tokenize( String path )
+    {
+        List<String> tokens = new ArrayList<String>();
+        for ( String token : path.split( java.util.regex.Pattern.quote( File.separator ) ) )
+        {
+            if ( token.length() != 0 )
+            {
+                tokens.add( token );
+            }
+        }
+        return tokens.toArray( new String[tokens.size()] );
+    }
+
+    /**
+     * Ant style pattern, split in path tokens once instead of on every match
+     */
+    private static class Pattern
+    {
+
+        private final String pattern;
+
+        private final String[] tokens;
+
+        private final boolean absolute;
+
+        private final boolean handler;
+
+        Pattern( String pattern )
+        {
+            pattern = pattern.trim();
+            this.handler =
+                pattern.startsWith( SelectorUtils.REGEX_HANDLER_PREFIX )
+                    || pattern.startsWith( SelectorUtils.ANT_HANDLER_PREFIX );
+            if ( !handler )
+            {
+                pattern = pattern.replace( '/', File.separatorChar ).replace( '\\', File.separatorChar );
+                if ( pattern.endsWith( File.separator ) )
+                {
+                    pattern += "**";
+                }
+            }
+            this.pattern = pattern;
+            this.tokens = tokenize( pattern );
+            this.absolute = pattern.startsWith( File.separator );
+        }
+
+        boolean matches( String path, String[] pathTokens )
+        {
+            if ( handler )
+            {
+                // regex and explicit ant handlers are left to plexus
+                return SelectorUtils.matchPath( pattern, path, true );
+            }
+            if ( absolute )
+            {
+                return false;
+            }
+            return matchTokens( tokens, pathTokens );
+        }
+
+        /**
+         * Same algorithm as {@link SelectorUtils#matchPath(String, String, boolean)}, over pre-split tokens
+         */
+        private static boolean matchTokens( String[] patDirs, String[] strDirs )
+        {
+            int patIdxStart = 0;
+            int patIdxEnd = patDirs.length - 1;
+            int strIdxStart = 0;
+            int strIdxEnd = strDirs.length - 1;
+
+            // up to first '**'
+            while ( patIdxStart <= patIdxEnd && strIdxStart <= strIdxEnd )
+            {
+                if ( "**".equals( patDirs[patIdxStart] ) )
+                {
+                    break;
+                }
+                if ( !SelectorUtils.match( patDirs[patIdxStart], strDirs[strIdxStart], true ) )
+                {
+                    return false;
+                }
+                patIdxStart++;
+                strIdxStart++;
+            }
+            if ( strIdxStart > strIdxEnd )
+            {
+                return onlyWildcards( patDirs, patIdxStart, patIdxEnd );
+            }
+            if ( patIdxStart > patIdxEnd )
+            {
+                return false;
+            }
+
+            // up to last '**'
+            while ( patIdxStart <= patIdxEnd && strIdxStart <= strIdxEnd )
+            {
+                if ( "**".equals( patDirs[patIdxEnd] ) )
+                {
+                    break;
+                }
+                if ( !SelectorUtils.match( patDirs[patIdxEnd], strDirs[strIdxEnd], true ) )
+                {
+                    return false;
+                }
+                patIdxEnd--;
+                strIdxEnd--;
+            }
+            if ( strIdxStart > strIdxEnd )
+            {
+                return onlyWildcards( patDirs, patIdxStart, patIdxEnd );
+            }
+
+            while ( patIdxStart != patIdxEnd && strIdxStart <= strIdxEnd )
+            {
+                int patIdxTmp = -1;
+                for ( int i = patIdxStart + 1; i <= patIdxEnd; i++ )
+                {
+                    if ( "**".equals( patDirs[i] ) )
+                    {
+                        patIdxTmp = i;
+                        break;
+                    }
+                }
+                if ( patIdxTmp == patIdxStart + 1 )
+                {
+                    // '**/**' situation, so skip one
+                    patIdxStart++;
+                    continue;
+                }
+
+                // find the pattern between patIdxStart & patIdxTmp in the path
+                int patLength = patIdxTmp - patIdxStart - 1;
+                int strLength = strIdxEnd - strIdxStart + 1;
+                int foundIdx = -1;
+                strLoop: for ( int i = 0; i <= strLength - patLength; i++ )
+                {
+                    for ( int j = 0; j < patLength; j++ )
+                    {
+                        if ( !SelectorUtils.match( patDirs[patIdxStart + j + 1], strDirs[strIdxStart + i + j], true ) )
+                        {
+                            continue strLoop;
+                        }
+                    }
+                    foundIdx = strIdxStart + i;
+                    break;
+                }
+                if ( foundIdx == -1 )
+                {
+                    return false;
+                }
+
+                patIdxStart = patIdxTmp;
+                strIdxStart = foundIdx + patLength;
+            }
+
+            return onlyWildcards( patDirs, patIdxStart, patIdxEnd );
+        }
+
+        private static boolean onlyWildcards( String[] patDirs, int start, int end )
+        {
+            for ( int i = start; i <= end; i++ )
+            {
+                if ( !"**".equals( patDirs[i] ) )
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
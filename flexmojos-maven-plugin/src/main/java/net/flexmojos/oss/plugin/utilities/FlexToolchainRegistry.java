@@ -0,0 +1,58 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Flex SDK pieces shared by every module of a build, keyed by compiler and framework version. Each one is prepared by
+ * the first caller and handed to all later ones.
+ * <p>
+ * The compiler classpath and classes are not kept here. The compiler is a dependency of the flexmojos plugin, so it is
+ * loaded by the plugin realm, which Maven already builds once per plugin and dependency set and reuses for every
+ * module of the build. The compiler also keeps static state, such as its thread local toolkit, that is only safe
+ * within that realm, so loading it again from a classloader of our own would repeat the work instead of saving it.
+ * </p>
+ */
+public class FlexToolchainRegistry
+{
+
+    private static final String FRAMEWORK_CONFIGS = FlexToolchainRegistry.class.getName() + ".frameworkConfigs";
+
+    /**
+     * @param compilerVersion version of the compiler the configs are used with
+     * @param frameworkVersion framework version
+     * @param unpacker resolves and unpacks the framework configs, used only if no one did it for these versions yet
+     * @return the directory holding the unpacked framework configs
+     */
+    public static File getFrameworkConfig( MavenSession session, String compilerVersion, String frameworkVersion,
+                                           Callable<File> unpacker )
+    {
+        SessionCache<String, File> configs = SessionCache.forSession( session, FRAMEWORK_CONFIGS );
+        return configs.get( compilerVersion + ":" + frameworkVersion, unpacker );
+    }
+
+    private FlexToolchainRegistry()
+    {
+        super();
+    }
+
+}
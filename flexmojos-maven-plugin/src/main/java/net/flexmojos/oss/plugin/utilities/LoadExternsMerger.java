@@ -0,0 +1,207 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+import net.flexmojos.oss.util.DigestUtil;
+
+/**
+ * Merges link reports used as load-externs into a single, deduplicated externs file.
+ * <p>
+ * The compiler only takes the ids of <code>def</code>, <code>pre</code> and <code>ext</code> elements from a load
+ * externs report, so the merged file holds those ids once each as definitions. Merged files are named after the
+ * content of their inputs, so every compile that loads the same set of reports reuses the same file.
+ * </p>
+ */
+public class LoadExternsMerger
+{
+
+    /**
+     * Upper bound of remembered report hashes
+     */
+    public static final int CACHE_SIZE = 1024;
+
+    /**
+     * Report hashes by path, size and timestamp; a rewritten report gets a new key and its old one ages out. A report
+     * rewritten with the same size within the timestamp resolution keeps its key, so writes must {@link #invalidate}.
+     */
+    private static final Map<String, String> HASHES = new LinkedHashMap<String, String>( 64, 0.75f, true )
+    {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry( Map.Entry<String, String> eldest )
+        {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * @return the merged externs file inside <code>directory</code>
+     */
+    public static File merge( Collection<File> reports, File directory )
+        throws IOException
+    {
+        List<String> hashes = new ArrayList<String>();
+        for ( File report : reports )
+        {
+            hashes.add( hash( report ) );
+        }
+        // externs are a set, the order reports are given doesn't matter
+        Collections.sort( hashes );
+
+        File merged = new File( directory, DigestUtil.sha256( hashes.toString() ) + ".xml" );
+        synchronized ( LoadExternsMerger.class )
+        {
+            if ( merged.isFile() )
+            {
+                return merged;
+            }
+
+            Set<String> externs = new LinkedHashSet<String>();
+            for ( File report : reports )
+            {
+                read( report, externs );
+            }
+
+            directory.mkdirs();
+            File tmp = new File( directory, merged.getName() + "." + System.nanoTime() + ".tmp" );
+            FileUtils.fileWrite( tmp.getPath(), "UTF-8", toReport( externs ) );
+            if ( !tmp.renameTo( merged ) )
+            {
+                tmp.delete();
+                throw new IOException( "Unable to write merged load externs " + merged );
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Forgets the hashes of a report, or of every report below a directory, the build has just written.
+     */
+    public static void invalidate( File file )
+    {
+        if ( file == null )
+        {
+            return;
+        }
+
+        String path = file.getAbsolutePath();
+        synchronized ( HASHES )
+        {
+            for ( Iterator<String> iterator = HASHES.keySet().iterator(); iterator.hasNext(); )
+            {
+                String key = iterator.next();
+                if ( key.startsWith( path + ":" ) || key.startsWith( path + File.separator ) )
+                {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private static String hash( File report )
+        throws IOException
+    {
+        String key = report.getAbsolutePath() + ":" + report.length() + ":" + report.lastModified();
+        synchronized ( HASHES )
+        {
+            String hash = HASHES.get( key );
+            if ( hash == null )
+            {
+                hash = DigestUtil.sha256( report );
+                HASHES.put( key, hash );
+            }
+            return hash;
+        }
+    }
+
+    private static void read( File report, final Set<String> externs )
+        throws IOException
+    {
+        try
+        {
+            SAXParser parser = SAXParserFactory.newInstance().newSAXParser();
+            parser.parse( report, new DefaultHandler()
+            {
+                @Override
+                public void startElement( String uri, String localName, String qName, Attributes attributes )
+                {
+                    if ( "def".equals( qName ) || "pre".equals( qName ) || "ext".equals( qName ) )
+                    {
+                        String id = attributes.getValue( "id" );
+                        if ( id != null )
+                        {
+                            externs.add( id );
+                        }
+                    }
+                }
+            } );
+        }
+        catch ( IOException e )
+        {
+            throw e;
+        }
+        catch ( Exception e )
+        {
+            throw new IOException( "Unable to read link report " + report + ": " + e.getMessage() );
+        }
+    }
+
+    private static String toReport( Set<String> externs )
+    {
+        StringBuilder report = new StringBuilder();
+        report.append( "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" );
+        report.append( "<report>\n  <scripts>\n    <script name=\"load-externs\">\n" );
+        for ( String id : externs )
+        {
+            report.append( "      <def id=\"" ).append( escape( id ) ).append( "\" />\n" );
+        }
+        report.append( "    </script>\n  </scripts>\n</report>\n" );
+        return report.toString();
+    }
+
+    private static String escape( String value )
+    {
+        return value.replace( "&", "&amp;" ).replace( "<", "&lt;" ).replace( ">", "&gt;" ).replace( "\"", "&quot;" );
+    }
+
+    private LoadExternsMerger()
+    {
+        super();
+    }
+
+}
@@ -267,6 +267,14 @@ public class MavenUtils
         return flexmojosProperties.getProperty( "version" );
     }
 
+    /**
+     * @return the compiler version flexmojos uses unless the project overrides its compiler dependency
+     */
+    public static String getDefaultCompilerVersion()
+    {
+        return flexmojosProperties.getProperty( "compiler.version" );
+    }
+
     public static String replaceArtifactCoordinatesTokens( String sample, Artifact artifact )
     {
         sample = sample.replace( "{groupId}", artifact.getGroupId() );
@@ -0,0 +1,166 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.apache.maven.execution.MavenSession;
+
+/**
+ * Values computed at most once per build. Concurrent requests for the same key share a single computation. Unless
+ * the cache keeps failures, a failed computation is forgotten and the next request tries again.
+ */
+public class SessionCache<K, V>
+{
+
+    private static final Map<Object, Map<String, SessionCache<?, ?>>> BUILDS =
+        new WeakHashMap<Object, Map<String, SessionCache<?, ?>>>();
+
+    /**
+     * Every project build gets its own clone of the session, so the cache is kept by the request they all share.
+     * 
+     * @param name tells apart the caches of one build
+     */
+    public static <K, V> SessionCache<K, V> forSession( MavenSession session, String name )
+    {
+        return forSession( session, name, false );
+    }
+
+    /**
+     * @param keepFailures when true, a failed computation is rethrown to every later request for the same key
+     */
+    public static <K, V> SessionCache<K, V> forSession( MavenSession session, String name, boolean keepFailures )
+    {
+        return forRequest( session.getRequest(), name, keepFailures );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    static synchronized <K, V> SessionCache<K, V> forRequest( Object request, String name, boolean keepFailures )
+    {
+        Map<String, SessionCache<?, ?>> caches = BUILDS.get( request );
+        if ( caches == null )
+        {
+            caches = new HashMap<String, SessionCache<?, ?>>();
+            BUILDS.put( request, caches );
+        }
+
+        SessionCache<K, V> cache = (SessionCache<K, V>) caches.get( name );
+        if ( cache == null )
+        {
+            cache = new SessionCache<K, V>( keepFailures );
+            caches.put( name, cache );
+        }
+        return cache;
+    }
+
+    private final ConcurrentMap<K, FutureTask<V>> values = new ConcurrentHashMap<K, FutureTask<V>>();
+
+    private final boolean keepFailures;
+
+    public SessionCache()
+    {
+        this( false );
+    }
+
+    public SessionCache( boolean keepFailures )
+    {
+        this.keepFailures = keepFailures;
+    }
+
+    public V get( K key, Callable<V> computation )
+    {
+        return get( key, register( key, computation ) );
+    }
+
+    /**
+     * @return the computation of key, shared with everyone else asking for it. It may not have run yet.
+     */
+    public FutureTask<V> register( K key, Callable<V> computation )
+    {
+        FutureTask<V> task = values.get( key );
+        if ( task == null )
+        {
+            task = new FutureTask<V>( computation );
+            FutureTask<V> existing = values.putIfAbsent( key, task );
+            if ( existing != null )
+            {
+                task = existing;
+            }
+        }
+        return task;
+    }
+
+    /**
+     * @return keys computed or being computed, at the time of the call
+     */
+    public Set<K> keySet()
+    {
+        return new HashSet<K>( values.keySet() );
+    }
+
+    /**
+     * Forgets the value of key, the next request computes it again
+     */
+    public void remove( K key )
+    {
+        values.remove( key );
+    }
+
+    /**
+     * Runs the registered computation, unless it already ran or is running elsewhere, and waits for its value.
+     */
+    public V get( K key, FutureTask<V> task )
+    {
+        task.run();
+        try
+        {
+            return task.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( "Interrupted while computing " + key, e );
+        }
+        catch ( ExecutionException e )
+        {
+            if ( !keepFailures )
+            {
+                values.remove( key, task );
+            }
+            if ( e.getCause() instanceof RuntimeException )
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            if ( e.getCause() instanceof Error )
+            {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException( e.getCause().getMessage(), e.getCause() );
+        }
+    }
+
+}
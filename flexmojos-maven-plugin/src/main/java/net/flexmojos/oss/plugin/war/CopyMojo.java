@@ -21,11 +21,21 @@ import static net.flexmojos.oss.util.PathUtil.file;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -43,6 +53,7 @@ import net.flexmojos.oss.plugin.common.FlexExtension;
 import net.flexmojos.oss.plugin.common.FlexScopes;
 import net.flexmojos.oss.plugin.utilities.CompileConfigurationLoader;
 import net.flexmojos.oss.plugin.utilities.MavenUtils;
+import net.flexmojos.oss.util.DigestUtil;
 
 /**
  * Goal to copy flex artifacts into war projects.
@@ -109,16 +120,188 @@ public class CopyMojo
      */
     private File webappDirectory;
 
+    /**
+     * Hard link artifacts instead of copying them when the file system supports it. The webapp then shares its files
+     * with the local repository, so they must never be modified in place.
+     * 
+     * @parameter default-value="false" expression="${flexmojos.copy.hardLink}"
+     */
+    private boolean hardLink;
+
+    /**
+     * How many files are copied at once.
+     * 
+     * @parameter default-value="4" expression="${flexmojos.copy.threads}"
+     */
+    private int copyThreads;
+
+    /**
+     * Pending copies, destination to source
+     */
+    private Map<File, File> copies;
+
+    /**
+     * RSLs and runtime locales waiting to be resolved, destination to artifact
+     */
+    private Map<File, Artifact> unresolvedCopies;
+
+    /**
+     * Project models built during this execution, by groupId:artifactId:version
+     */
+    private Map<String, MavenProject> projects;
+
+    private static final Method TO_PATH;
+
+    private static final Method CREATE_LINK;
+
+    static
+    {
+        Method toPath = null;
+        Method createLink = null;
+        try
+        {
+            // java 7 file system API, looked up reflectively to keep running on java 6
+            Class<?> path = Class.forName( "java.nio.file.Path" );
+            toPath = File.class.getMethod( "toPath" );
+            createLink = Class.forName( "java.nio.file.Files" ).getMethod( "createLink", path, path );
+        }
+        catch ( Exception e )
+        {
+            toPath = null;
+            createLink = null;
+        }
+        TO_PATH = toPath;
+        CREATE_LINK = createLink;
+    }
+
     private void copy( File sourceFile, File destFile )
+    {
+        copies.put( destFile, sourceFile );
+    }
+
+    private void performCopies()
         throws MojoExecutionException
     {
+        if ( copies.isEmpty() )
+        {
+            return;
+        }
+
+        List<Callable<Boolean>> tasks = new ArrayList<Callable<Boolean>>();
+        for ( final Entry<File, File> copy : copies.entrySet() )
+        {
+            tasks.add( new Callable<Boolean>()
+            {
+                public Boolean call()
+                    throws Exception
+                {
+                    return transfer( copy.getValue(), copy.getKey() );
+                }
+            } );
+        }
+
+        int threads = Math.max( 1, Math.min( copyThreads, tasks.size() ) );
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        int transferred = 0;
+        try
+        {
+            for ( Future<Boolean> task : executor.invokeAll( tasks ) )
+            {
+                if ( task.get() )
+                {
+                    transferred++;
+                }
+            }
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException( "Interrupted while copying flex resources", e );
+        }
+        catch ( ExecutionException e )
+        {
+            throw new MojoExecutionException( e.getCause().getMessage(), e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        getLog().info( "Copied " + transferred + " of " + tasks.size() + " flex resources, the others were up to date" );
+    }
+
+    /**
+     * @return false when destFile already had the content of sourceFile
+     */
+    private boolean transfer( File sourceFile, File destFile )
+        throws IOException
+    {
+        if ( isUpToDate( sourceFile, destFile ) )
+        {
+            return false;
+        }
+
+        // never write through an old hard link, it would change the file on the local repository
+        destFile.delete();
+        destFile.getParentFile().mkdirs();
+
+        if ( hardLink && link( sourceFile, destFile ) )
+        {
+            return true;
+        }
+
         try
         {
             FileUtils.copyFile( sourceFile, destFile );
         }
         catch ( IOException e )
         {
-            throw new MojoExecutionException( "Failed to copy " + sourceFile, e );
+            throw new IOException( "Failed to copy " + sourceFile, e );
+        }
+        destFile.setLastModified( sourceFile.lastModified() );
+        return true;
+    }
+
+    private boolean isUpToDate( File sourceFile, File destFile )
+        throws IOException
+    {
+        if ( !destFile.isFile() || destFile.length() != sourceFile.length() )
+        {
+            return false;
+        }
+
+        // copies keep the source timestamp, so a matching one means this file was already copied
+        if ( destFile.lastModified() == sourceFile.lastModified() )
+        {
+            return true;
+        }
+
+        if ( !DigestUtil.sha256( sourceFile ).equals( DigestUtil.sha256( destFile ) ) )
+        {
+            return false;
+        }
+
+        destFile.setLastModified( sourceFile.lastModified() );
+        return true;
+    }
+
+    private boolean link( File sourceFile, File destFile )
+    {
+        if ( CREATE_LINK == null )
+        {
+            return false;
+        }
+
+        try
+        {
+            CREATE_LINK.invoke( null, TO_PATH.invoke( destFile ), TO_PATH.invoke( sourceFile ) );
+            return true;
+        }
+        catch ( Exception e )
+        {
+            // different file systems or no hard link support, falls back to copy
+            getLog().debug( "Unable to hard link " + sourceFile + ", copying it", e );
+            return false;
         }
     }
 
@@ -139,6 +322,9 @@ public class CopyMojo
         }
 
         webappDirectory.mkdirs();
+        copies = new LinkedHashMap<File, File>();
+        unresolvedCopies = new LinkedHashMap<File, Artifact>();
+        projects = new HashMap<String, MavenProject>();
 
         List<Artifact> swfDependencies = getSwfArtifacts();
 
@@ -164,6 +350,24 @@ public class CopyMojo
             copy( sourceFile, destFile );
         }
 
+        performUnresolvedCopies();
+        performCopies();
+    }
+
+    /**
+     * Resolves every pending RSL and runtime locale in one concurrent batch, each distinct artifact only once.
+     */
+    private void performUnresolvedCopies()
+        throws MojoExecutionException
+    {
+        List<Artifact> artifacts = new ArrayList<Artifact>( unresolvedCopies.values() );
+        List<Artifact> resolved = resolve( artifacts );
+
+        int i = 0;
+        for ( File destination : unresolvedCopies.keySet() )
+        {
+            copy( resolved.get( i++ ).getFile(), destination );
+        }
     }
 
     private List<Artifact> getAirArtifacts()
@@ -228,6 +432,20 @@ public class CopyMojo
 
     private MavenProject getProject( Artifact artifact )
         throws MojoExecutionException
+    {
+        String key = artifact.getGroupId() + ":" + artifact.getArtifactId() + ":" + artifact.getVersion();
+        if ( projects.containsKey( key ) )
+        {
+            return projects.get( key );
+        }
+
+        MavenProject artifactProject = buildProject( artifact );
+        projects.put( key, artifactProject );
+        return artifactProject;
+    }
+
+    private MavenProject buildProject( Artifact artifact )
+        throws MojoExecutionException
     {
         try
         {
@@ -336,11 +554,8 @@ public class CopyMojo
             rslArtifact =
                 repositorySystem.createArtifactWithClassifier( rslArtifact.getGroupId(), rslArtifact.getArtifactId(),
                                                                rslArtifact.getVersion(), extension, rslArtifact.getClassifier() );
-            rslArtifact = replaceWithResolvedArtifact( rslArtifact );
 
-            File destFile = resolveRslDestination( rslUrls, rslArtifact, extension );
-            File sourceFile = rslArtifact.getFile();
-            copy( sourceFile, destFile );
+            unresolvedCopies.put( resolveRslDestination( rslUrls, rslArtifact, extension ), rslArtifact );
         }
     }
 
@@ -358,8 +573,7 @@ public class CopyMojo
 
         for ( Artifact artifact : deps )
         {
-            artifact = replaceWithResolvedArtifact( artifact );
-            copy( artifact.getFile(), resolveRuntimeLocaleDestination( runtimeLocaleOutputPath, artifact ) );
+            unresolvedCopies.put( resolveRuntimeLocaleDestination( runtimeLocaleOutputPath, artifact ), artifact );
         }
     }
 
@@ -395,13 +609,6 @@ public class CopyMojo
         return sample;
     }
 
-    private Artifact replaceWithResolvedArtifact( Artifact artifact )
-        throws MojoExecutionException
-    {
-        return resolve( artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion(),
-                        artifact.getClassifier(), artifact.getType() );
-    }
-
     private File resolveRslDestination( String rsl, Artifact artifact, String extension )
     {
         rsl = replaceContextRoot( rsl );
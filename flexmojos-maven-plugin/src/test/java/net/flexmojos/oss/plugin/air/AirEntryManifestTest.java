@@ -0,0 +1,87 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.air;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class AirEntryManifestTest
+{
+
+    private File directory;
+
+    private File swf;
+
+    private Map<String, File> entries;
+
+    @BeforeMethod
+    public void createEntries()
+        throws IOException
+    {
+        directory = new File( "target/air-entries" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( directory );
+        directory.mkdirs();
+
+        swf = new File( directory, "main.swf" );
+        FileUtils.fileWrite( swf.getPath(), "first" );
+        swf.setLastModified( 1000000000000L );
+
+        entries = new LinkedHashMap<String, File>();
+        entries.put( "main.swf", swf );
+    }
+
+    @Test
+    public void savedAndLoaded()
+        throws IOException
+    {
+        AirEntryManifest manifest = AirEntryManifest.create( entries, "settings", null );
+        File file = new File( directory, "main.air-entries.txt" );
+        manifest.save( file );
+
+        assertThat( AirEntryManifest.load( file ), equalTo( manifest ) );
+        assertThat( AirEntryManifest.create( entries, "other", manifest ), not( equalTo( manifest ) ) );
+    }
+
+    @Test
+    public void unchangedEntriesAreNotRead()
+        throws IOException
+    {
+        AirEntryManifest manifest = AirEntryManifest.create( entries, "settings", null );
+
+        // same length and last modification, the file isn't read again
+        FileUtils.fileWrite( swf.getPath(), "other" );
+        swf.setLastModified( 1000000000000L );
+        assertThat( AirEntryManifest.create( entries, "settings", manifest ), equalTo( manifest ) );
+
+        swf.setLastModified( 1000000002000L );
+        AirEntryManifest changed = AirEntryManifest.create( entries, "settings", manifest );
+        assertThat( changed, not( equalTo( manifest ) ) );
+        assertThat( changed, equalTo( AirEntryManifest.create( entries, "settings", null ) ) );
+    }
+
+}
@@ -0,0 +1,60 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.lazyload;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.testng.annotations.Test;
+
+public class LayeredCacheTest
+{
+
+    @Test
+    public void clonesShareOnlySharedKeys()
+    {
+        Map<String, Object> values = new LinkedHashMap<String, Object>();
+        values.put( "getDependencies", "deps" );
+        values.put( "getOutput", "main.swf" );
+
+        LayeredCache main = new LayeredCache( values, new HashSet<String>( Arrays.asList( "getDependencies",
+                                                                                          "getTheme" ) ) );
+        LayeredCache locale = main.branch();
+
+        assertThat( locale.get( "getDependencies" ), equalTo( (Object) "deps" ) );
+        assertThat( locale.containsKey( "getOutput" ), equalTo( false ) );
+
+        // computed by a clone, reused by the original
+        locale.put( "getTheme", "spark.css" );
+        locale.put( "getOutput", "main-en_US.swf" );
+        assertThat( main.get( "getTheme" ), equalTo( (Object) "spark.css" ) );
+        assertThat( main.get( "getOutput" ), equalTo( (Object) "main.swf" ) );
+
+        locale.clear();
+        assertThat( locale.get( "getOutput" ), nullValue() );
+        assertThat( locale.get( "getTheme" ), equalTo( (Object) "spark.css" ) );
+        assertThat( main.size(), equalTo( 3 ) );
+    }
+
+}
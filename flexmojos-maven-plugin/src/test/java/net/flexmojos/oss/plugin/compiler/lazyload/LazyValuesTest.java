@@ -0,0 +1,163 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.compiler.lazyload;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class LazyValuesTest
+{
+
+    private Map<String, Object> cache;
+
+    private AtomicInteger computations;
+
+    private CountDownLatch computing;
+
+    private CountDownLatch release;
+
+    private ExecutorService executor;
+
+    @BeforeMethod
+    public void createCache()
+    {
+        cache = Collections.synchronizedMap( new LinkedHashMap<String, Object>() );
+        computations = new AtomicInteger();
+        computing = new CountDownLatch( 1 );
+        release = new CountDownLatch( 1 );
+        executor = Executors.newFixedThreadPool( 2 );
+    }
+
+    @AfterMethod
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test( timeOut = 10000 )
+    public void computesOnceForConcurrentCallers()
+        throws Exception
+    {
+        Future<Object> first = executor.submit( getter( "template.html" ) );
+        computing.await();
+        Future<Object> second = executor.submit( getter( "other.html" ) );
+        // the second caller is now waiting on the first one's computation
+        Thread.sleep( 50 );
+        release.countDown();
+
+        assertThat( first.get(), equalTo( (Object) "template.html" ) );
+        assertThat( second.get(), equalTo( (Object) "template.html" ) );
+        assertThat( computations.get(), equalTo( 1 ) );
+        assertThat( cache.get( "getTemplate" ), equalTo( (Object) "template.html" ) );
+    }
+
+    @Test( timeOut = 10000 )
+    public void failureReachesEveryWaiter()
+        throws Exception
+    {
+        final MojoExecutionException failure = new MojoExecutionException( "Template not found" );
+        Future<Object> first = executor.submit( failing( failure ) );
+        computing.await();
+        Future<Object> second = executor.submit( failing( failure ) );
+        Thread.sleep( 50 );
+        release.countDown();
+
+        assertThat( thrown( first ), sameInstance( (Throwable) failure ) );
+        assertThat( thrown( second ), sameInstance( (Throwable) failure ) );
+        assertThat( computations.get(), equalTo( 1 ) );
+
+        // nothing left pending, the next caller computes again
+        assertThat( cache.containsKey( "getTemplate" ), equalTo( false ) );
+        assertThat( executor.submit( getter( "template.html" ) ).get(), equalTo( (Object) "template.html" ) );
+        assertThat( computations.get(), equalTo( 2 ) );
+    }
+
+    private Throwable thrown( Future<Object> future )
+        throws InterruptedException
+    {
+        try
+        {
+            future.get( 5, TimeUnit.SECONDS );
+            return null;
+        }
+        catch ( Exception e )
+        {
+            return e.getCause();
+        }
+    }
+
+    private Callable<Object> getter( final String value )
+    {
+        return new Callable<Object>()
+        {
+            public Object call()
+            {
+                return LazyValues.get( cache, "getTemplate", new Callable<Object>()
+                {
+                    public Object call()
+                        throws InterruptedException
+                    {
+                        computations.incrementAndGet();
+                        computing.countDown();
+                        release.await();
+                        return value;
+                    }
+                } );
+            }
+        };
+    }
+
+    private Callable<Object> failing( final MojoExecutionException failure )
+    {
+        return new Callable<Object>()
+        {
+            public Object call()
+            {
+                return LazyValues.get( cache, "getTemplate", new Callable<Object>()
+                {
+                    public Object call()
+                        throws Exception
+                    {
+                        computations.incrementAndGet();
+                        computing.countDown();
+                        release.await();
+                        throw failure;
+                    }
+                } );
+            }
+        };
+    }
+
+}
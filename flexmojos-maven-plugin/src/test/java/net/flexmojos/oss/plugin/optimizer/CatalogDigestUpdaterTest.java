@@ -0,0 +1,157 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.optimizer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.testng.annotations.Test;
+
+public class CatalogDigestUpdaterTest
+{
+
+    private static final String DIGEST = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    private static final String COMPILER_DIGEST = "cde8ace277591f002171fc19af9b117c99e48649762fa04354fb1edb1b5e9fdc";
+
+    private static final String CATALOG =
+        "<swc><libraries><library path=\"library.swf\"><script name=\"Main\" />%s</library></libraries></swc>";
+
+    @Test
+    public void addDigest()
+        throws Exception
+    {
+        Xpp3Dom catalog = parse( String.format( CATALOG, "" ) );
+
+        CatalogDigestUpdater.update( catalog, DIGEST );
+
+        Xpp3Dom library = catalog.getChild( "libraries" ).getChild( "library" );
+        assertThat( library.getChild( "script" ).getAttribute( "name" ), equalTo( "Main" ) );
+        Xpp3Dom[] digests = library.getChild( "digests" ).getChildren( "digest" );
+        assertThat( digests.length, equalTo( 1 ) );
+        assertThat( digests[0].getAttribute( "type" ), equalTo( "SHA-256" ) );
+        assertThat( digests[0].getAttribute( "signed" ), equalTo( "false" ) );
+        assertThat( digests[0].getAttribute( "value" ), equalTo( DIGEST ) );
+    }
+
+    @Test
+    public void replaceUnsignedDigest()
+        throws Exception
+    {
+        Xpp3Dom catalog =
+            parse( String.format( CATALOG, "<digests><digest type=\"SHA-256\" signed=\"true\" value=\"signed\" />"
+                + "<digest type=\"SHA-256\" signed=\"false\" value=\"" + COMPILER_DIGEST + "\" /></digests>" ) );
+
+        CatalogDigestUpdater.update( catalog, DIGEST );
+
+        Xpp3Dom[] digests = catalog.getChild( "libraries" ).getChild( "library" ).getChild( "digests" ).getChildren();
+        assertThat( digests.length, equalTo( 2 ) );
+        assertThat( digests[0].getAttribute( "value" ), equalTo( "signed" ) );
+        assertThat( digests[1].getAttribute( "value" ), equalTo( DIGEST ) );
+    }
+
+    @Test
+    public void updateSwc()
+        throws IOException
+    {
+        File swc = new File( "target/catalog-digest/artifact.swc" );
+        FileUtils.copyFile( new File( "target/test-classes/swcs/artifact-en_US-1.0.rb.swc" ), swc );
+
+        CatalogDigestUpdater.update( swc, DIGEST );
+
+        ZipFile zip = new ZipFile( swc );
+        try
+        {
+            assertThat( zip.size(), equalTo( 9 ) );
+            String catalog = IOUtil.toString( zip.getInputStream( zip.getEntry( "catalog.xml" ) ), "UTF-8" );
+            assertThat( catalog, containsString( DIGEST ) );
+            assertThat( catalog, not( containsString( COMPILER_DIGEST ) ) );
+        }
+        finally
+        {
+            zip.close();
+        }
+    }
+
+    @Test
+    public void storedEntriesStayStored()
+        throws IOException
+    {
+        File swc = new File( "target/catalog-digest/stored.swc" );
+        swc.getParentFile().mkdirs();
+        byte[] library = "library".getBytes( "UTF-8" );
+        ZipOutputStream out = new ZipOutputStream( new FileOutputStream( swc ) );
+        try
+        {
+            out.putNextEntry( new ZipEntry( CatalogDigestUpdater.CATALOG ) );
+            out.write( String.format( CATALOG, "" ).getBytes( "UTF-8" ) );
+            out.closeEntry();
+
+            ZipEntry stored = new ZipEntry( CatalogDigestUpdater.LIBRARY );
+            stored.setMethod( ZipEntry.STORED );
+            stored.setSize( library.length );
+            CRC32 crc = new CRC32();
+            crc.update( library );
+            stored.setCrc( crc.getValue() );
+            out.putNextEntry( stored );
+            out.write( library );
+            out.closeEntry();
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+
+        CatalogDigestUpdater.update( swc, DIGEST );
+
+        ZipFile zip = new ZipFile( swc );
+        try
+        {
+            ZipEntry entry = zip.getEntry( CatalogDigestUpdater.LIBRARY );
+            assertThat( entry.getMethod(), equalTo( ZipEntry.STORED ) );
+            assertThat( IOUtil.toString( zip.getInputStream( entry ), "UTF-8" ), equalTo( "library" ) );
+        }
+        finally
+        {
+            zip.close();
+        }
+    }
+
+    private Xpp3Dom parse( String catalog )
+        throws XmlPullParserException, IOException
+    {
+        return Xpp3DomBuilder.build( new StringReader( catalog ) );
+    }
+
+}
@@ -0,0 +1,96 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.annotations.Test;
+
+public class CoverageHistoryTest
+{
+
+    private File historyFile()
+        throws IOException
+    {
+        File file = File.createTempFile( "coverage-history", ".txt" );
+        file.delete();
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void orderByMarginalGain()
+        throws IOException
+    {
+        File file = historyFile();
+        CoverageHistory previous = new CoverageHistory( file );
+        previous.touch( "Small.swf", "a.A", new Integer[] { 1, 2 } );
+        previous.touch( "Big.swf", "a.A", new Integer[] { 1, 2, 3, 4 } );
+        previous.touch( "Other.swf", "b.B", new Integer[] { 1, 2, 3 } );
+        previous.save();
+
+        CoverageHistory history = new CoverageHistory( file );
+        history.load();
+        List<String> pending = new ArrayList<String>( Arrays.asList( "Small.swf", "Big.swf", "Other.swf" ) );
+
+        assertThat( history.next( pending ), equalTo( "Big.swf" ) );
+        history.touch( "Big.swf", "a.A", new Integer[] { 1, 2, 3, 4 } );
+
+        // Small.swf adds nothing on top of Big.swf
+        assertThat( history.next( pending ), equalTo( "Other.swf" ) );
+        assertThat( history.next( pending ), equalTo( "Small.swf" ) );
+    }
+
+    @Test
+    public void unknownRunnersFirst()
+        throws IOException
+    {
+        File file = historyFile();
+        CoverageHistory history = new CoverageHistory( file );
+        history.touch( "Known.swf", "a.A", new Integer[] { 1 } );
+        List<String> pending = new ArrayList<String>( Arrays.asList( "Known.swf", "New.swf" ) );
+
+        assertThat( history.reachable( pending ), equalTo( -1 ) );
+        assertThat( history.next( pending ), equalTo( "New.swf" ) );
+    }
+
+    @Test
+    public void reachableLines()
+        throws IOException
+    {
+        File file = historyFile();
+        CoverageHistory history = new CoverageHistory( file );
+        history.touch( "A.swf", "a.A", new Integer[] { 1, 2, 3 } );
+        history.touch( "B.swf", "a.A", new Integer[] { 3, 4 } );
+        history.save();
+
+        history = new CoverageHistory( file );
+        history.load();
+        history.touch( "C.swf", "a.A", new Integer[] { 1 } );
+
+        assertThat( history.reachable( Arrays.asList( "A.swf", "B.swf" ) ), equalTo( 3 ) );
+    }
+
+}
@@ -0,0 +1,186 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.DefaultArtifact;
+import org.apache.maven.artifact.handler.ArtifactHandler;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ArtifactResolutionCacheTest
+{
+
+    private File repository;
+
+    private AtomicInteger lookups;
+
+    private ArtifactResolutionCache.Resolver resolver;
+
+    @BeforeMethod
+    public void createRepository()
+        throws IOException
+    {
+        repository = new File( "target/resolution-repository" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( repository );
+        deploy( artifact( "shell", null, "swc" ) );
+        deploy( artifact( "shell", "link-report", "xml" ) );
+        deploy( artifact( "module", "link-report", "xml" ) );
+
+        lookups = new AtomicInteger();
+        resolver = new ArtifactResolutionCache.Resolver()
+        {
+            public Artifact resolve( Artifact artifact )
+                throws Exception
+            {
+                lookups.incrementAndGet();
+                // slow enough for concurrent requests to overlap
+                Thread.sleep( 50 );
+                File file = path( artifact );
+                if ( !file.exists() )
+                {
+                    throw new IllegalStateException( "Missing " + artifact );
+                }
+                artifact.setFile( file );
+                artifact.setResolved( true );
+                return artifact;
+            }
+        };
+    }
+
+    @Test
+    public void batchKeepsOrderAndDedupes()
+    {
+        ArtifactResolutionCache cache = new ArtifactResolutionCache();
+
+        List<Artifact> requested =
+            Arrays.asList( artifact( "shell", "link-report", "xml" ), artifact( "module", "link-report", "xml" ),
+                           artifact( "shell", "link-report", "xml" ), artifact( "shell", null, "swc" ) );
+        List<Artifact> resolved = cache.resolve( requested, null, resolver, 4 );
+
+        assertThat( resolved.size(), equalTo( 4 ) );
+        for ( int i = 0; i < 4; i++ )
+        {
+            // every caller keeps its own instance
+            assertThat( resolved.get( i ), sameInstance( requested.get( i ) ) );
+            assertThat( resolved.get( i ).isResolved(), equalTo( true ) );
+        }
+        assertThat( resolved.get( 0 ).getFile(), equalTo( path( artifact( "shell", "link-report", "xml" ) ) ) );
+        assertThat( resolved.get( 1 ).getFile(), equalTo( path( artifact( "module", "link-report", "xml" ) ) ) );
+        assertThat( resolved.get( 2 ).getFile(), equalTo( resolved.get( 0 ).getFile() ) );
+        assertThat( resolved.get( 3 ).getFile(), equalTo( path( artifact( "shell", null, "swc" ) ) ) );
+        assertThat( lookups.get(), equalTo( 3 ) );
+
+        cache.resolve( artifact( "module", "link-report", "xml" ), null, resolver );
+        assertThat( lookups.get(), equalTo( 3 ) );
+    }
+
+    @Test
+    public void failuresAreKept()
+    {
+        ArtifactResolutionCache cache = new ArtifactResolutionCache();
+
+        for ( int i = 0; i < 2; i++ )
+        {
+            try
+            {
+                cache.resolve( Arrays.asList( artifact( "shell", null, "swc" ), artifact( "missing", null, "swc" ) ),
+                               null, resolver, 4 );
+                Assert.fail( "missing artifact resolved" );
+            }
+            catch ( IllegalStateException e )
+            {
+                assertThat( e.getMessage(), equalTo( "Missing " + artifact( "missing", null, "swc" ) ) );
+            }
+        }
+
+        // the available artifact and the missing one once each
+        assertThat( lookups.get(), equalTo( 2 ) );
+
+        try
+        {
+            cache.resolve( artifact( "missing", null, "swc" ), null, resolver );
+            Assert.fail( "missing artifact resolved" );
+        }
+        catch ( IllegalStateException e )
+        {
+            assertThat( lookups.get(), equalTo( 2 ) );
+        }
+    }
+
+    @Test
+    public void keyedByRepositories()
+    {
+        ArtifactResolutionCache cache = new ArtifactResolutionCache();
+        List<ArtifactRepository> central = Arrays.asList( repository( "central" ) );
+        List<ArtifactRepository> both = Arrays.asList( repository( "flex" ), repository( "central" ) );
+
+        cache.resolve( artifact( "shell", null, "swc" ), central, resolver );
+        cache.resolve( artifact( "shell", null, "swc" ), central, resolver );
+        assertThat( lookups.get(), equalTo( 1 ) );
+
+        cache.resolve( artifact( "shell", null, "swc" ), both, resolver );
+        assertThat( lookups.get(), equalTo( 2 ) );
+    }
+
+    private ArtifactRepository repository( String id )
+    {
+        ArtifactRepository repository = mock( ArtifactRepository.class );
+        when( repository.getId() ).thenReturn( id );
+        when( repository.getUrl() ).thenReturn( "http://repository.example/" + id );
+        return repository;
+    }
+
+    private Artifact artifact( String artifactId, String classifier, String type )
+    {
+        return new DefaultArtifact( "net.flexmojos.oss.test", artifactId, "1.0", "compile", type, classifier,
+                                    mock( ArtifactHandler.class ) );
+    }
+
+    private File path( Artifact artifact )
+    {
+        String name = artifact.getArtifactId() + "-" + artifact.getVersion()
+            + ( artifact.getClassifier() == null ? "" : "-" + artifact.getClassifier() ) + "." + artifact.getType();
+        return new File( repository, artifact.getGroupId().replace( '.', '/' ) + "/" + artifact.getArtifactId() + "/"
+            + artifact.getVersion() + "/" + name );
+    }
+
+    private void deploy( Artifact artifact )
+        throws IOException
+    {
+        File file = path( artifact );
+        file.getParentFile().mkdirs();
+        FileUtils.fileWrite( file.getPath(), artifact.getId() );
+    }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.codehaus.plexus.util.DirectoryScanner;
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+public class DirectorySnapshotTest
+{
+
+    private File root;
+
+    private SessionCache<File, DirectorySnapshot> snapshots;
+
+    @BeforeClass
+    public void createTree()
+        throws IOException
+    {
+        root = new File( "target/directory-snapshot" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( root );
+        for ( String path : new String[] { "Main.mxml", "com/acme/Foo.as", "com/acme/Bar.mxml", "com/acme/ui/Baz.as",
+            "com/acme/ui/skins/Skin.mxml", "org/other/Other.as", "org/other/.svn/entries", "assets/logo.png" } )
+        {
+            File file = new File( root, path );
+            file.getParentFile().mkdirs();
+            FileUtils.fileWrite( file.getPath(), path );
+        }
+        snapshots = new SessionCache<File, DirectorySnapshot>();
+    }
+
+    @Test
+    public void matchesDirectoryScanner()
+    {
+        assertSameAsScanner( null, null );
+        assertSameAsScanner( Arrays.asList( "**/*.as" ), null );
+        assertSameAsScanner( Arrays.asList( "com/acme/" ), Arrays.asList( "**/skins/**" ) );
+        assertSameAsScanner( Arrays.asList( "com/**/ui/*.as", "*.mxml" ), null );
+        assertSameAsScanner( Arrays.asList( "**/acme/**/*.mxml" ), Arrays.asList( "**/Bar*" ) );
+        assertSameAsScanner( Arrays.asList( "com\\acme\\*" ), null );
+        assertSameAsScanner( Arrays.asList( "%regex[.*/Ba[rz]\\..*]" ), null );
+        assertSameAsScanner( Arrays.asList( "/com/**" ), null );
+    }
+
+    @Test
+    public void walksOnce()
+        throws IOException
+    {
+        DirectorySnapshot snapshot = DirectorySnapshot.of( snapshots, root );
+        DirectorySnapshot acme = DirectorySnapshot.of( snapshots, new File( root, "com/acme" ) );
+        DirectorySnapshot other = DirectorySnapshot.of( snapshots, new File( root, "org/other" ) );
+        File added = new File( root, "com/acme/Added.as" );
+        FileUtils.fileWrite( added.getPath(), "added" );
+        try
+        {
+            assertThat( DirectorySnapshot.of( snapshots, root ), sameInstance( snapshot ) );
+            assertThat( Arrays.asList( snapshot.getIncludedFiles( Arrays.asList( "**/Added.as" ), null, true ) ),
+                        equalTo( Collections.<String> emptyList() ) );
+
+            // every snapshot holding the written file is walked again, others are kept
+            DirectorySnapshot.invalidate( snapshots, added );
+            snapshot = DirectorySnapshot.of( snapshots, root );
+            assertThat( snapshot.getIncludedFiles( Arrays.asList( "**/Added.as" ), null, true ).length, equalTo( 1 ) );
+            Assert.assertNotSame( DirectorySnapshot.of( snapshots, new File( root, "com/acme" ) ), acme );
+            assertThat( DirectorySnapshot.of( snapshots, new File( root, "org/other" ) ), sameInstance( other ) );
+
+            // and so is everything below a written directory
+            DirectorySnapshot.invalidate( snapshots, new File( root, "org" ) );
+            Assert.assertNotSame( DirectorySnapshot.of( snapshots, new File( root, "org/other" ) ), other );
+        }
+        finally
+        {
+            added.delete();
+            DirectorySnapshot.invalidate( snapshots, root );
+        }
+    }
+
+    private void assertSameAsScanner( List<String> includes, List<String> excludes )
+    {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir( root );
+        if ( includes != null )
+        {
+            scanner.setIncludes( includes.toArray( new String[0] ) );
+        }
+        if ( excludes != null )
+        {
+            scanner.setExcludes( excludes.toArray( new String[0] ) );
+        }
+        scanner.addDefaultExcludes();
+        scanner.scan();
+        List<String> expected = new ArrayList<String>( Arrays.asList( scanner.getIncludedFiles() ) );
+        Collections.sort( expected );
+
+        List<String> actual =
+            Arrays.asList( DirectorySnapshot.of( snapshots, root ).getIncludedFiles( includes, excludes, true ) );
+
+        assertThat( includes + " - " + excludes, actual, equalTo( expected ) );
+    }
+
+}
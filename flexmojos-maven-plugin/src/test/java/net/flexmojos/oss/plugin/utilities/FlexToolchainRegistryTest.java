@@ -0,0 +1,87 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.maven.execution.MavenExecutionRequest;
+import org.apache.maven.execution.MavenSession;
+import org.testng.annotations.Test;
+
+public class FlexToolchainRegistryTest
+{
+
+    @Test
+    public void unpackOncePerBuild()
+    {
+        // every project builds with its own clone of the session, all sharing the request
+        MavenExecutionRequest request = mock( MavenExecutionRequest.class );
+        MavenSession shell = session( request );
+        MavenSession module = session( request );
+        AtomicInteger unpacks = new AtomicInteger();
+
+        File dir = FlexToolchainRegistry.getFrameworkConfig( shell, "4.5.1.21328", "4.5.1.21328", unpacker( unpacks ) );
+        assertThat( FlexToolchainRegistry.getFrameworkConfig( module, "4.5.1.21328", "4.5.1.21328",
+                                                              unpacker( unpacks ) ), equalTo( dir ) );
+        assertThat( unpacks.get(), equalTo( 1 ) );
+
+        // a new build starts over
+        FlexToolchainRegistry.getFrameworkConfig( session( mock( MavenExecutionRequest.class ) ), "4.5.1.21328",
+                                                  "4.5.1.21328", unpacker( unpacks ) );
+        assertThat( unpacks.get(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void keyedByCompilerAndFramework()
+    {
+        MavenSession session = session( mock( MavenExecutionRequest.class ) );
+        AtomicInteger unpacks = new AtomicInteger();
+
+        FlexToolchainRegistry.getFrameworkConfig( session, "4.5.1.21328", "4.5.1.21328", unpacker( unpacks ) );
+        FlexToolchainRegistry.getFrameworkConfig( session, "4.6.b.23201", "4.5.1.21328", unpacker( unpacks ) );
+        FlexToolchainRegistry.getFrameworkConfig( session, "4.6.b.23201", "4.6.b.23201", unpacker( unpacks ) );
+        FlexToolchainRegistry.getFrameworkConfig( session, "4.6.b.23201", "4.5.1.21328", unpacker( unpacks ) );
+        assertThat( unpacks.get(), equalTo( 3 ) );
+    }
+
+    private MavenSession session( MavenExecutionRequest request )
+    {
+        MavenSession session = mock( MavenSession.class );
+        when( session.getRequest() ).thenReturn( request );
+        return session;
+    }
+
+    private Callable<File> unpacker( final AtomicInteger unpacks )
+    {
+        return new Callable<File>()
+        {
+            public File call()
+            {
+                return new File( "configs_zip" + unpacks.incrementAndGet() );
+            }
+        };
+    }
+
+}
@@ -0,0 +1,114 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class LoadExternsMergerTest
+{
+
+    private File directory;
+
+    private File shell;
+
+    private File library;
+
+    @BeforeMethod
+    public void createReports()
+        throws IOException
+    {
+        directory = new File( "target/load-externs" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( directory );
+        shell = report( "shell", "<script name=\"Shell.as\"><def id=\"Shell\" /><pre id=\"mx.core:Application\" />"
+            + "<dep id=\"AS3\" /></script>", "<ext id=\"mx.core:UIComponent\" />" );
+        library = report( "library", "<script name=\"Lib.as\"><def id=\"com.acme:Lib\" />"
+            + "<pre id=\"mx.core:Application\" /></script>", "" );
+    }
+
+    @Test
+    public void mergesOnce()
+        throws IOException
+    {
+        File merged = LoadExternsMerger.merge( Arrays.asList( shell, library ), directory );
+
+        String content = FileUtils.fileRead( merged );
+        assertThat( content, containsString( "<def id=\"Shell\" />" ) );
+        assertThat( content, containsString( "<def id=\"mx.core:UIComponent\" />" ) );
+        assertThat( content, containsString( "<def id=\"com.acme:Lib\" />" ) );
+        assertThat( content.indexOf( "mx.core:Application" ), equalTo( content.lastIndexOf( "mx.core:Application" ) ) );
+        assertThat( content, not( containsString( "AS3" ) ) );
+
+        merged.setLastModified( 0 );
+        File reused = LoadExternsMerger.merge( Arrays.asList( library, shell ), directory );
+        assertThat( reused, equalTo( merged ) );
+        assertThat( reused.lastModified(), equalTo( 0L ) );
+    }
+
+    @Test
+    public void keyedByContent()
+        throws IOException
+    {
+        File merged = LoadExternsMerger.merge( Arrays.asList( shell ), directory );
+
+        report( "shell", "<script name=\"Shell.as\"><def id=\"Shell2\" /></script>", "" );
+        File changed = LoadExternsMerger.merge( Arrays.asList( shell ), directory );
+
+        assertThat( changed, not( equalTo( merged ) ) );
+        assertThat( FileUtils.fileRead( changed ), containsString( "<def id=\"Shell2\" />" ) );
+    }
+
+    @Test
+    public void invalidatedOnWrite()
+        throws IOException
+    {
+        shell.setLastModified( 1000000000000L );
+        File merged = LoadExternsMerger.merge( Arrays.asList( shell ), directory );
+
+        // same size and timestamp, only the invalidation tells the merger
+        report( "shell", "<script name=\"Shell.as\"><def id=\"Shell\" /><pre id=\"mx.core:Applicatiom\" />"
+            + "<dep id=\"AS3\" /></script>", "<ext id=\"mx.core:UIComponent\" />" );
+        shell.setLastModified( 1000000000000L );
+        LoadExternsMerger.invalidate( shell.getParentFile() );
+        File changed = LoadExternsMerger.merge( Arrays.asList( shell ), directory );
+
+        assertThat( changed, not( equalTo( merged ) ) );
+        assertThat( FileUtils.fileRead( changed ), containsString( "mx.core:Applicatiom" ) );
+    }
+
+    private File report( String name, String scripts, String externals )
+        throws IOException
+    {
+        File report = new File( directory, "reports/" + name + "-link-report.xml" );
+        report.getParentFile().mkdirs();
+        FileUtils.fileWrite( report.getPath(), "<report><scripts>" + scripts + "</scripts><external-defs>"
+            + externals + "</external-defs></report>" );
+        return report;
+    }
+
+}
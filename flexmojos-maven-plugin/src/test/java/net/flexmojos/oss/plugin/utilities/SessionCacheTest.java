@@ -0,0 +1,128 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.plugin.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class SessionCacheTest
+{
+
+    @Test
+    public void computeOncePerKey()
+    {
+        SessionCache<String, String> cache = new SessionCache<String, String>();
+        AtomicInteger computations = new AtomicInteger();
+
+        String value = cache.get( "4.6.b.23201", computation( computations, "4.6" ) );
+        assertThat( cache.get( "4.6.b.23201", computation( computations, "other" ) ), equalTo( value ) );
+        assertThat( computations.get(), equalTo( 1 ) );
+
+        cache.get( "4.5.1.21328", computation( computations, "4.5" ) );
+        assertThat( computations.get(), equalTo( 2 ) );
+    }
+
+    @Test
+    public void failuresAreRetried()
+    {
+        SessionCache<String, String> cache = new SessionCache<String, String>();
+        try
+        {
+            cache.get( "4.6.b.23201", new Callable<String>()
+            {
+                public String call()
+                {
+                    throw new IllegalStateException( "offline" );
+                }
+            } );
+            Assert.fail();
+        }
+        catch ( IllegalStateException e )
+        {
+            assertThat( e.getMessage(), equalTo( "offline" ) );
+        }
+
+        AtomicInteger computations = new AtomicInteger();
+        assertThat( cache.get( "4.6.b.23201", computation( computations, "4.6" ) ), equalTo( "4.6" ) );
+        assertThat( computations.get(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void failuresAreKept()
+    {
+        SessionCache<String, String> cache = new SessionCache<String, String>( true );
+        AtomicInteger computations = new AtomicInteger();
+        for ( int i = 0; i < 2; i++ )
+        {
+            try
+            {
+                cache.get( "missing", failure( computations ) );
+                Assert.fail();
+            }
+            catch ( IllegalStateException e )
+            {
+                assertThat( e.getMessage(), equalTo( "offline" ) );
+            }
+        }
+        assertThat( computations.get(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void scopedByRequestAndName()
+    {
+        Object request = new Object();
+
+        SessionCache<String, String> cache = SessionCache.forRequest( request, "a", false );
+
+        assertThat( SessionCache.<String, String> forRequest( request, "a", false ), sameInstance( cache ) );
+        Assert.assertNotSame( SessionCache.forRequest( request, "b", false ), cache );
+        Assert.assertNotSame( SessionCache.forRequest( new Object(), "a", false ), cache );
+    }
+
+    private Callable<String> failure( final AtomicInteger computations )
+    {
+        return new Callable<String>()
+        {
+            public String call()
+            {
+                computations.incrementAndGet();
+                throw new IllegalStateException( "offline" );
+            }
+        };
+    }
+
+    private Callable<String> computation( final AtomicInteger computations, final String value )
+    {
+        return new Callable<String>()
+        {
+            public String call()
+            {
+                computations.incrementAndGet();
+                return value;
+            }
+        };
+    }
+
+}
@@ -35,6 +35,8 @@ public class CoverageReportRequest
 
     private List<File> sourcePath;
 
+    private boolean summaryOnly;
+
     @SuppressWarnings( "unchecked" )
     public CoverageReportRequest( File dataDirectory, List<String> formats, String encoding, File reportDirectory,
                                   File... sourcePath )
@@ -72,4 +74,17 @@ public class CoverageReportRequest
         return sourcePath;
     }
 
+    /**
+     * When true only the summary report is written, regardless of the requested formats.
+     */
+    public boolean isSummaryOnly()
+    {
+        return summaryOnly;
+    }
+
+    public void setSummaryOnly( boolean summaryOnly )
+    {
+        this.summaryOnly = summaryOnly;
+    }
+
 }
@@ -31,4 +31,8 @@ public interface CoverageReporter
     
     void setExcludes( String[] excludes );
 
+    int getNumberOfValidLines();
+
+    int getNumberOfCoveredLines();
+
 }
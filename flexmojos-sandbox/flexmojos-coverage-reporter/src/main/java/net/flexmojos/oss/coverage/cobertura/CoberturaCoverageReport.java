@@ -18,7 +18,14 @@
 package net.flexmojos.oss.coverage.cobertura;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import net.sourceforge.cobertura.coveragedata.ClassData;
 import net.sourceforge.cobertura.coveragedata.CoverageDataFileHandler;
@@ -28,7 +35,6 @@ import net.sourceforge.cobertura.reporting.html.HTMLReport;
 import net.sourceforge.cobertura.reporting.xml.SummaryXMLReport;
 import net.sourceforge.cobertura.reporting.xml.XMLReport;
 import net.sourceforge.cobertura.util.FileFinder;
-import net.sourceforge.cobertura.util.Source;
 
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.personality.plexus.lifecycle.phase.Initializable;
@@ -39,7 +45,6 @@ import net.flexmojos.oss.coverage.CoverageReportException;
 import net.flexmojos.oss.coverage.CoverageReportRequest;
 import net.flexmojos.oss.coverage.CoverageReporter;
 import net.flexmojos.oss.coverage.util.ApparatUtil;
-import net.flexmojos.oss.util.PathUtil;
 
 import apparat.tools.coverage.CoverageObserver;
 
@@ -89,60 +94,104 @@ public class CoberturaCoverageReport
     {
         File dataDirectory = request.getDataDirectory();
 
-        FileFinder finder = new FileFinder()
+        final FileFinder finder = new IndexedFileFinder( request.getSourcePaths() );
+        // ActionScript complexity isn't measured, so the calculator answers 0 without looking at the data
+        final ComplexityCalculator complexity = new ZeroComplexityCalculator( finder );
+        final ProjectData projectData = new MemoizedProjectData( coverageProjectData );
+
+        final File coverageReportDestinationDir = request.getReportDestinationDir();
+        coverageReportDestinationDir.mkdirs();
+
+        List<Callable<Object>> reports = new ArrayList<Callable<Object>>();
+
+        List<String> format = request.getFormats();
+        if ( request.isSummaryOnly() )
+        {
+            format = Collections.singletonList( "summaryXml" );
+        }
+
+        if ( format.contains( "html" ) )
         {
-            public Source getSource( String fileName )
+            String encoding = request.getReportEncoding();
+            if ( StringUtils.isEmpty( encoding ) )
             {
-                Source source = super.getSource( fileName.replace( ".java", ".as" ) );
-                
-                if ( source == null )
+                encoding = "UTF-8";
+            }
+            final String coverageReportEncoding = encoding;
+            reports.add( new Callable<Object>()
+            {
+                public Object call()
+                    throws Exception
                 {
-                    source = super.getSource( fileName.replace( ".java", ".mxml" ) );
+                    return new HTMLReport( projectData, coverageReportDestinationDir, finder, complexity,
+                                           coverageReportEncoding );
                 }
-                return source;
-            }
-        };
+            } );
+        }
 
-        List<File> sp = request.getSourcePaths();
-        for ( File dir : sp )
+        if ( format.contains( "xml" ) )
         {
-            finder.addSourceDirectory( PathUtil.path( dir ) );
+            reports.add( new Callable<Object>()
+            {
+                public Object call()
+                    throws Exception
+                {
+                    return new XMLReport( projectData, coverageReportDestinationDir, finder, complexity );
+                }
+            } );
         }
 
-        ComplexityCalculator complexity = new ZeroComplexityCalculator( finder );
-        try
+        if ( format.contains( "summaryXml" ) )
         {
-            File coverageReportDestinationDir = request.getReportDestinationDir();
-            coverageReportDestinationDir.mkdirs();
-
-            List<String> format = request.getFormats();
-            if ( format.contains( "html" ) )
+            reports.add( new Callable<Object>()
             {
-                String coverageReportEncoding = request.getReportEncoding();
-                if ( StringUtils.isEmpty( coverageReportEncoding ) )
+                public Object call()
+                    throws Exception
                 {
-                    coverageReportEncoding = "UTF-8";
+                    return new SummaryXMLReport( projectData, coverageReportDestinationDir, finder,
+                                                 complexity );
                 }
-                new HTMLReport( coverageProjectData, coverageReportDestinationDir, finder, complexity,
-                                coverageReportEncoding );
-            }
-            
-            if ( format.contains( "xml" ) )
-            {
-                new XMLReport( coverageProjectData, coverageReportDestinationDir, finder, complexity );
-            }
-            
-            if ( format.contains( "summaryXml" ) )
+            } );
+        }
+
+        run( reports );
+
+        CoverageDataFileHandler.saveCoverageData( coverageProjectData, new File( dataDirectory, "cobertura.ser" ) );
+    }
+
+    /**
+     * Each report only reads the project data, so the requested formats are written side by side.
+     */
+    private void run( List<Callable<Object>> reports )
+        throws CoverageReportException
+    {
+        if ( reports.isEmpty() )
+        {
+            return;
+        }
+
+        int threads = Math.min( reports.size(), Runtime.getRuntime().availableProcessors() );
+        ExecutorService executor = Executors.newFixedThreadPool( threads );
+        try
+        {
+            for ( Future<Object> report : executor.invokeAll( reports ) )
             {
-                new SummaryXMLReport( coverageProjectData, coverageReportDestinationDir, finder, complexity );
+                report.get();
             }
         }
-        catch ( Exception e )
+        catch ( InterruptedException e )
         {
+            Thread.currentThread().interrupt();
             throw new CoverageReportException( "Unable to write coverage report", e );
         }
-
-        CoverageDataFileHandler.saveCoverageData( coverageProjectData, new File( dataDirectory, "cobertura.ser" ) );
+        catch ( ExecutionException e )
+        {
+            throw new CoverageReportException( "Unable to write coverage report", e.getCause() );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
     }
 
     public void addResult( String file, Integer[] touchs )
@@ -160,4 +209,14 @@ public class CoberturaCoverageReport
     	}
     }
 
+    public int getNumberOfValidLines()
+    {
+        return coverageProjectData.getNumberOfValidLines();
+    }
+
+    public int getNumberOfCoveredLines()
+    {
+        return coverageProjectData.getNumberOfCoveredLines();
+    }
+
 }
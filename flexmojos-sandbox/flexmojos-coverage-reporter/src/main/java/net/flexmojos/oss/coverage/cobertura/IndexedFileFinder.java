@@ -0,0 +1,99 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.coverage.cobertura;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.sourceforge.cobertura.util.FileFinder;
+import net.sourceforge.cobertura.util.Source;
+
+import net.flexmojos.oss.util.PathUtil;
+
+/**
+ * {@link FileFinder} that walks every source path once and answers all later lookups from memory. Source content is
+ * only opened when the report asks for it.
+ */
+class IndexedFileFinder
+    extends FileFinder
+{
+
+    private final Map<String, File> index = new HashMap<String, File>();
+
+    public IndexedFileFinder( List<File> sourcePaths )
+    {
+        for ( File dir : sourcePaths )
+        {
+            addSourceDirectory( PathUtil.path( dir ) );
+            index( dir, "" );
+        }
+    }
+
+    private void index( File dir, String prefix )
+    {
+        File[] children = dir.listFiles();
+        if ( children == null )
+        {
+            return;
+        }
+
+        for ( File child : children )
+        {
+            String name = prefix + child.getName();
+            if ( child.isDirectory() )
+            {
+                index( child, name + "/" );
+            }
+            else if ( ( name.endsWith( ".as" ) || name.endsWith( ".mxml" ) ) && !index.containsKey( name ) )
+            {
+                // first source path wins, same as FileFinder
+                index.put( name, child );
+            }
+        }
+    }
+
+    @Override
+    public Source getSource( String fileName )
+    {
+        String name = fileName.replace( '\\', '/' );
+        File file = index.get( name.replace( ".java", ".as" ) );
+        if ( file == null )
+        {
+            file = index.get( name.replace( ".java", ".mxml" ) );
+        }
+        if ( file == null )
+        {
+            return null;
+        }
+
+        try
+        {
+            return new Source( new BufferedInputStream( new FileInputStream( file ) ), file );
+        }
+        catch ( FileNotFoundException e )
+        {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,270 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.coverage.cobertura;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import net.sourceforge.cobertura.coveragedata.ClassData;
+import net.sourceforge.cobertura.coveragedata.PackageData;
+import net.sourceforge.cobertura.coveragedata.ProjectData;
+import net.sourceforge.cobertura.coveragedata.SourceFileData;
+
+/**
+ * Read only copy of a {@link ProjectData}, taken once all the coverage data is in. Cobertura rebuilds source file
+ * groupings, sub package sets and sums project and package counters on every call, which the reports do once per
+ * page. Here they are computed once, up front, so the copy can also be shared by reports written in parallel.
+ */
+class MemoizedProjectData
+    extends ProjectData
+{
+
+    private static final long serialVersionUID = -1403858312577418512L;
+
+    private final transient SortedSet<MemoizedPackageData> packages;
+
+    private final transient SortedSet<SourceFileData> sourceFiles;
+
+    private final transient Map<String, SortedSet<PackageData>> subPackages;
+
+    private final transient Counters counters;
+
+    @SuppressWarnings( "unchecked" )
+    public MemoizedProjectData( ProjectData projectData )
+    {
+        Map<String, MemoizedPackageData> packageMap = new TreeMap<String, MemoizedPackageData>();
+        for ( ClassData classData : (Iterable<ClassData>) projectData.getClasses() )
+        {
+            addClassData( classData );
+
+            MemoizedPackageData packageData = packageMap.get( classData.getPackageName() );
+            if ( packageData == null )
+            {
+                packageData = new MemoizedPackageData( classData.getPackageName() );
+                packageMap.put( classData.getPackageName(), packageData );
+            }
+            packageData.addClassData( classData );
+        }
+
+        TreeSet<SourceFileData> allSourceFiles = new TreeSet<SourceFileData>();
+        Map<String, SortedSet<PackageData>> subPackageMap = new HashMap<String, SortedSet<PackageData>>();
+        Counters total = new Counters();
+        for ( MemoizedPackageData packageData : packageMap.values() )
+        {
+            packageData.freeze();
+            allSourceFiles.addAll( packageData.getSourceFiles() );
+            total.add( packageData.counters );
+
+            // a package is a sub package of itself, of every parent package and of the default package
+            String name = packageData.getName();
+            addSubPackage( subPackageMap, "", packageData );
+            for ( int dot = name.indexOf( '.' ); dot != -1; dot = name.indexOf( '.', dot + 1 ) )
+            {
+                addSubPackage( subPackageMap, name.substring( 0, dot ), packageData );
+            }
+            addSubPackage( subPackageMap, name, packageData );
+        }
+        for ( Map.Entry<String, SortedSet<PackageData>> entry : subPackageMap.entrySet() )
+        {
+            entry.setValue( Collections.unmodifiableSortedSet( entry.getValue() ) );
+        }
+
+        this.packages = Collections.unmodifiableSortedSet( new TreeSet<MemoizedPackageData>( packageMap.values() ) );
+        this.sourceFiles = Collections.unmodifiableSortedSet( allSourceFiles );
+        this.subPackages = subPackageMap;
+        this.counters = total;
+    }
+
+    private static void addSubPackage( Map<String, SortedSet<PackageData>> subPackageMap, String packageName,
+                                       PackageData packageData )
+    {
+        SortedSet<PackageData> subPackages = subPackageMap.get( packageName );
+        if ( subPackages == null )
+        {
+            subPackages = new TreeSet<PackageData>();
+            subPackageMap.put( packageName, subPackages );
+        }
+        subPackages.add( packageData );
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public SortedSet getPackages()
+    {
+        return packages;
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public SortedSet getSourceFiles()
+    {
+        return sourceFiles;
+    }
+
+    @Override
+    @SuppressWarnings( "unchecked" )
+    public SortedSet getSubPackages( String packageName )
+    {
+        SortedSet<PackageData> packageSubPackages = subPackages.get( packageName );
+        return packageSubPackages == null ? new TreeSet<PackageData>() : packageSubPackages;
+    }
+
+    @Override
+    public int getNumberOfValidLines()
+    {
+        return counters.validLines;
+    }
+
+    @Override
+    public int getNumberOfCoveredLines()
+    {
+        return counters.coveredLines;
+    }
+
+    @Override
+    public int getNumberOfValidBranches()
+    {
+        return counters.validBranches;
+    }
+
+    @Override
+    public int getNumberOfCoveredBranches()
+    {
+        return counters.coveredBranches;
+    }
+
+    @Override
+    public double getLineCoverageRate()
+    {
+        return counters.getLineCoverageRate();
+    }
+
+    @Override
+    public double getBranchCoverageRate()
+    {
+        return counters.getBranchCoverageRate();
+    }
+
+    static class MemoizedPackageData
+        extends PackageData
+    {
+
+        private static final long serialVersionUID = 6227394290151734960L;
+
+        private transient SortedSet<SourceFileData> sourceFiles;
+
+        private transient Counters counters;
+
+        MemoizedPackageData( String name )
+        {
+            super( name );
+        }
+
+        @SuppressWarnings( "unchecked" )
+        void freeze()
+        {
+            this.sourceFiles = Collections.unmodifiableSortedSet( new TreeSet<SourceFileData>( super.getSourceFiles() ) );
+            this.counters = new Counters();
+            counters.validLines = super.getNumberOfValidLines();
+            counters.coveredLines = super.getNumberOfCoveredLines();
+            counters.validBranches = super.getNumberOfValidBranches();
+            counters.coveredBranches = super.getNumberOfCoveredBranches();
+        }
+
+        @Override
+        @SuppressWarnings( "unchecked" )
+        public SortedSet getSourceFiles()
+        {
+            return sourceFiles == null ? super.getSourceFiles() : sourceFiles;
+        }
+
+        @Override
+        public int getNumberOfValidLines()
+        {
+            return counters == null ? super.getNumberOfValidLines() : counters.validLines;
+        }
+
+        @Override
+        public int getNumberOfCoveredLines()
+        {
+            return counters == null ? super.getNumberOfCoveredLines() : counters.coveredLines;
+        }
+
+        @Override
+        public int getNumberOfValidBranches()
+        {
+            return counters == null ? super.getNumberOfValidBranches() : counters.validBranches;
+        }
+
+        @Override
+        public int getNumberOfCoveredBranches()
+        {
+            return counters == null ? super.getNumberOfCoveredBranches() : counters.coveredBranches;
+        }
+
+        @Override
+        public double getLineCoverageRate()
+        {
+            return counters == null ? super.getLineCoverageRate() : counters.getLineCoverageRate();
+        }
+
+        @Override
+        public double getBranchCoverageRate()
+        {
+            return counters == null ? super.getBranchCoverageRate() : counters.getBranchCoverageRate();
+        }
+
+    }
+
+    static class Counters
+    {
+
+        int validLines;
+
+        int coveredLines;
+
+        int validBranches;
+
+        int coveredBranches;
+
+        void add( Counters other )
+        {
+            validLines += other.validLines;
+            coveredLines += other.coveredLines;
+            validBranches += other.validBranches;
+            coveredBranches += other.coveredBranches;
+        }
+
+        // same convention as cobertura: nothing to cover means fully covered
+        double getLineCoverageRate()
+        {
+            return validLines == 0 ? 1d : (double) coveredLines / validLines;
+        }
+
+        double getBranchCoverageRate()
+        {
+            return validBranches == 0 ? 1d : (double) coveredBranches / validBranches;
+        }
+
+    }
+
+}
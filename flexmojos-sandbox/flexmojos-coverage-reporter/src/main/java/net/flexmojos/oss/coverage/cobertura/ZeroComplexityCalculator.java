@@ -24,6 +24,10 @@ import net.sourceforge.cobertura.coveragedata.SourceFileData;
 import net.sourceforge.cobertura.reporting.ComplexityCalculator;
 import net.sourceforge.cobertura.util.FileFinder;
 
+/**
+ * Complexity isn't measured for ActionScript sources. Every level answers 0 straight away, so no report ever walks
+ * the project, package or source file data (or parses a source) for the complexity columns.
+ */
 public class ZeroComplexityCalculator extends ComplexityCalculator {
 	public ZeroComplexityCalculator( FileFinder finder ) {
 		super( finder );
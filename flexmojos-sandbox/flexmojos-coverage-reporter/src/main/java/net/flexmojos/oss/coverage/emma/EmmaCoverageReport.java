@@ -18,37 +18,37 @@
 package net.flexmojos.oss.coverage.emma;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.personality.plexus.lifecycle.phase.Initializable;
 import org.codehaus.plexus.personality.plexus.lifecycle.phase.InitializationException;
+import org.codehaus.plexus.util.StringUtils;
 import net.flexmojos.oss.coverage.AbstractCoverageReporter;
 import net.flexmojos.oss.coverage.CoverageReportException;
 import net.flexmojos.oss.coverage.CoverageReportRequest;
 import net.flexmojos.oss.coverage.CoverageReporter;
 import net.flexmojos.oss.coverage.util.ApparatUtil;
-import net.flexmojos.oss.util.PathUtil;
 
 import apparat.tools.coverage.CoverageObserver;
 
-import com.vladium.emma.IAppConstants;
-import com.vladium.emma.data.DataFactory;
-import com.vladium.emma.data.ICoverageData;
-import com.vladium.emma.report.ReportProcessor;
-import com.vladium.util.XProperties;
-
 @Component( role = CoverageReporter.class, hint = "emma", instantiationStrategy = "per-lookup" )
 public class EmmaCoverageReport
     extends AbstractCoverageReporter
     implements CoverageReporter, Initializable
 {
 
-    private ICoverageData cdata;
+    private Map<String, LineHits> cdata;
 
     public void initialize()
         throws InitializationException
     {
-        this.cdata = DataFactory.newCoverageData();
+        this.cdata = new HashMap<String, LineHits>();
     }
 
     @Override
@@ -60,59 +60,122 @@ public class EmmaCoverageReport
             {
             	if ( !isExcluded( file ) )
             	{
-	                String classname = ApparatUtil.toClassname( file );
-	                synchronized ( cdata.lock() )
+	                synchronized ( cdata )
 	                {
-	                    boolean[][] cover = new boolean[0][0];
-	                    cdata.addClass( cover, classname, line );
+	                    getLineHits( file ).addLine( line );
 	                }
             	}
             }
         };
     }
 
+    private LineHits getLineHits( String file )
+    {
+        String classname = ApparatUtil.toClassname( file );
+        LineHits hits = cdata.get( classname );
+        if ( hits == null )
+        {
+            hits = new LineHits( classname, file.substring( file.lastIndexOf( ';' ) + 1 ) );
+            cdata.put( classname, hits );
+        }
+        return hits;
+    }
+
     public void generateReport( CoverageReportRequest request )
         throws CoverageReportException
     {
-        File dataDirectory = request.getDataDirectory();
         File reportDirectory = request.getReportDestinationDir();
+        reportDirectory.mkdirs();
 
-        File coverageFile = new File( dataDirectory, "coverage.ec" );
-
-        XProperties properties = new XProperties();
-        properties.setProperty( "report.html.out.file", PathUtil.path( new File( reportDirectory, "index.html" ) ) );
-        properties.setProperty( "report.xml.out.file", PathUtil.path( new File( reportDirectory, "coverage.xml" ) ) );
-        properties.setProperty( "report.txt.out.file", PathUtil.path( new File( reportDirectory, "coverage.txt" ) ) );
-        properties.setProperty( "report.sort", "+name,+block,+method,+class" );
-        properties.setProperty( "report.out.encoding", "UTF-8" );
-        properties.setProperty( "report.xml.out.encoding", "UTF-8" );
-        properties.setProperty( "report.html.out.encoding", "UTF-8" );
-
-        ReportProcessor reporter = ReportProcessor.create();
-        reporter.setAppName( IAppConstants.APP_NAME );
-        reporter.setDataPath( PathUtil.paths( coverageFile ) );
-        reporter.setSourcePath( PathUtil.paths( request.getSourcePaths() ) );
-        try
+        String encoding = request.getReportEncoding();
+        if ( StringUtils.isEmpty( encoding ) )
         {
-            reporter.setReportTypes( request.getFormats().toArray( new String[0] ) );
+            encoding = "UTF-8";
         }
-        catch ( RuntimeException e )
+
+        List<LineHits> files;
+        synchronized ( cdata )
+        {
+            files = new ArrayList<LineHits>( cdata.values() );
+        }
+
+        List<String> formats = request.getFormats();
+        if ( request.isSummaryOnly() )
         {
-            throw new CoverageReportException( "Unsupported report format: " + request.getFormats(), e );
+            formats = Collections.singletonList( "xml" );
         }
-        reporter.setPropertyOverrides( properties );
 
-        reporter.run();
+        EmmaReportWriter writer = new EmmaReportWriter( files, request.getSourcePaths(), encoding );
+        for ( String format : formats )
+        {
+            try
+            {
+                if ( "html".equals( format ) )
+                {
+                    writer.writeHtml( new File( reportDirectory, "index.html" ) );
+                }
+                else if ( "xml".equals( format ) )
+                {
+                    writer.writeXml( new File( reportDirectory, "coverage.xml" ) );
+                }
+                else if ( "txt".equals( format ) )
+                {
+                    writer.writeTxt( new File( reportDirectory, "coverage.txt" ) );
+                }
+                else
+                {
+                    throw new CoverageReportException( "Unsupported report format: " + format );
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new CoverageReportException( "Unable to write coverage report", e );
+            }
+        }
     }
 
     public void addResult( String file, Integer[] touchs )
     {
-        // mdata.ClassData classData =
-        // this.coverageProjectData.getOrCreateClassData( ApparatUtil.toClassname( classname ) );
-        // for ( Integer touch : touchs )
-        // {
-        // classData.touch( touch );
-        // }
+        if ( isExcluded( file ) )
+        {
+            getLogger().debug( "ignoring " + file + " from touch" );
+            return;
+        }
+
+        synchronized ( cdata )
+        {
+            LineHits hits = getLineHits( file );
+            for ( Integer touch : touchs )
+            {
+                hits.touch( touch );
+            }
+        }
+    }
+
+    public int getNumberOfValidLines()
+    {
+        int count = 0;
+        synchronized ( cdata )
+        {
+            for ( LineHits hits : cdata.values() )
+            {
+                count += hits.getExecutableLines();
+            }
+        }
+        return count;
+    }
+
+    public int getNumberOfCoveredLines()
+    {
+        int count = 0;
+        synchronized ( cdata )
+        {
+            for ( LineHits hits : cdata.values() )
+            {
+                count += hits.getCoveredLines();
+            }
+        }
+        return count;
     }
 
 }
@@ -0,0 +1,445 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.coverage.emma;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.xml.PrettyPrintXMLWriter;
+import org.codehaus.plexus.util.xml.XMLWriter;
+
+import com.vladium.emma.IAppConstants;
+
+/**
+ * Writes emma shaped reports (<code>coverage.xml</code>, <code>coverage.txt</code> and <code>index.html</code>, with a
+ * page per source file under <code>_files</code>) straight to disk. Files are sorted by package, then by classname, so
+ * each package is a contiguous range and the whole report is produced on a single pass without an intermediate
+ * document.
+ * <p>
+ * Apparat instruments source lines, one probe per executable line, which is what emma calls a block. So
+ * <code>class, %</code>, <code>block, %</code> and <code>line, %</code> are reported, block coverage counting those
+ * probes. The instrumentation doesn't tell where methods start or end, so there is no <code>method, %</code>; tools
+ * reading emma reports get the three types measured rather than a made up fourth one.
+ * </p>
+ */
+final class EmmaReportWriter
+{
+
+    private static final String COVERAGE = "{0}%  ({1}/{2})";
+
+    private static final String[] TYPES = { "class, %", "block, %", "line, %" };
+
+    private static final String SEPARATOR =
+        "-------------------------------------------------------------------------------";
+
+    /**
+     * A plain classname order would split a package around its subpackages, as in <code>com.foo.util.Abc</code>,
+     * <code>com.foo.util.collections.X</code>, <code>com.foo.util.formatDate</code>
+     */
+    private static final Comparator<LineHits> PACKAGE_ORDER = new Comparator<LineHits>()
+    {
+        public int compare( LineHits o1, LineHits o2 )
+        {
+            int order = o1.getPackageName().compareTo( o2.getPackageName() );
+            return order != 0 ? order : o1.getClassname().compareTo( o2.getClassname() );
+        }
+    };
+
+    private final List<LineHits> files;
+
+    private final List<File> sourcePaths;
+
+    private final int[] lines;
+
+    private final int[] coveredLines;
+
+    private final String encoding;
+
+    EmmaReportWriter( Collection<LineHits> files, List<File> sourcePaths, String encoding )
+    {
+        this.files = new ArrayList<LineHits>( files );
+        Collections.sort( this.files, PACKAGE_ORDER );
+        this.sourcePaths = sourcePaths == null ? Collections.<File> emptyList() : sourcePaths;
+        this.encoding = encoding;
+        this.lines = new int[files.size()];
+        this.coveredLines = new int[files.size()];
+        for ( int i = 0; i < lines.length; i++ )
+        {
+            lines[i] = this.files.get( i ).getExecutableLines();
+            coveredLines[i] = this.files.get( i ).getCoveredLines();
+        }
+    }
+
+    public void writeXml( File output )
+        throws IOException
+    {
+        Writer out = open( output );
+        try
+        {
+            out.write( "<?xml version=\"1.0\" encoding=\"" + encoding + "\"?>\n" );
+            XMLWriter w = new PrettyPrintXMLWriter( out );
+            w.startElement( "report" );
+
+            w.startElement( "stats" );
+            value( w, "packages", countPackages() );
+            value( w, "classes", files.size() );
+            value( w, "srcfiles", files.size() );
+            value( w, "srclines", sum( lines, 0, lines.length ) );
+            w.endElement();
+
+            w.startElement( "data" );
+            w.startElement( "all" );
+            w.addAttribute( "name", "all classes" );
+            coverage( w, 0, files.size() );
+
+            int start = 0;
+            while ( start < files.size() )
+            {
+                int end = packageEnd( start );
+                w.startElement( "package" );
+                w.addAttribute( "name", files.get( start ).getPackageName() );
+                coverage( w, start, end );
+                for ( int i = start; i < end; i++ )
+                {
+                    w.startElement( "srcfile" );
+                    w.addAttribute( "name", files.get( i ).getSourceFile() );
+                    coverage( w, i, i + 1 );
+                    w.startElement( "class" );
+                    w.addAttribute( "name", simpleName( files.get( i ) ) );
+                    coverage( w, i, i + 1 );
+                    w.endElement();
+                    w.endElement();
+                }
+                w.endElement();
+                start = end;
+            }
+
+            w.endElement();
+            w.endElement();
+            w.endElement();
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+    public void writeTxt( File output )
+        throws IOException
+    {
+        PrintWriter out = new PrintWriter( open( output ) );
+        try
+        {
+            out.println( "[" + IAppConstants.APP_NAME + " report, generated " + new Date() + "]" );
+            out.println( SEPARATOR );
+            out.println( "OVERALL COVERAGE SUMMARY:" );
+            out.println();
+            out.println( header() );
+            out.println( columns( 0, files.size() ) + "all classes" );
+            out.println();
+            out.println( "OVERALL STATS SUMMARY:" );
+            out.println();
+            out.println( "total packages:\t" + countPackages() );
+            out.println( "total classes:\t" + files.size() );
+            out.println( "total source files:\t" + files.size() );
+            out.println( "total executable lines:\t" + sum( lines, 0, lines.length ) );
+            out.println( SEPARATOR );
+            out.println( "COVERAGE BREAKDOWN BY PACKAGE:" );
+            out.println();
+            out.println( header() );
+
+            int start = 0;
+            while ( start < files.size() )
+            {
+                int end = packageEnd( start );
+                out.println( columns( start, end ) + files.get( start ).getPackageName() );
+                start = end;
+            }
+            out.println( SEPARATOR );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+    /**
+     * Writes <code>output</code> and, next to it, a <code>_files/N.html</code> page per source file with its line
+     * hits
+     */
+    public void writeHtml( File output )
+        throws IOException
+    {
+        File pages = new File( output.getParentFile(), "_files" );
+        pages.mkdirs();
+
+        PrintWriter out = new PrintWriter( open( output ) );
+        try
+        {
+            startPage( out, IAppConstants.APP_NAME + " Coverage Report" );
+            out.println( "<h2>OVERALL COVERAGE SUMMARY</h2>" );
+            startTable( out );
+            row( out, "all classes", 0, files.size() );
+            out.println( "</table>" );
+
+            out.println( "<h2>COVERAGE BREAKDOWN BY PACKAGE</h2>" );
+            int start = 0;
+            while ( start < files.size() )
+            {
+                int end = packageEnd( start );
+                startTable( out );
+                row( out, "<b>" + escape( files.get( start ).getPackageName() ) + "</b>", start, end );
+                for ( int i = start; i < end; i++ )
+                {
+                    row( out, "<a href=\"_files/" + i + ".html\">" + escape( files.get( i ).getSourceFile() )
+                        + "</a>", i, i + 1 );
+                    writeSourcePage( new File( pages, i + ".html" ), i );
+                }
+                out.println( "</table><br/>" );
+                start = end;
+            }
+            out.println( "</body></html>" );
+        }
+        finally
+        {
+            IOUtil.close( out );
+        }
+    }
+
+    /**
+     * Streams the source, when it can be found on the source paths, next to the hits of each line
+     */
+    private void writeSourcePage( File output, int index )
+        throws IOException
+    {
+        LineHits file = files.get( index );
+        PrintWriter out = new PrintWriter( open( output ) );
+        BufferedReader source = openSource( file );
+        try
+        {
+            startPage( out, IAppConstants.APP_NAME + " Coverage Report [" + escape( file.getClassname() ) + "]" );
+            out.println( "<p><a href=\"../index.html\">[all classes]</a>[" + escape( file.getPackageName() )
+                + "]</p>" );
+            out.println( "<h2>COVERAGE SUMMARY FOR SOURCE FILE [" + escape( file.getSourceFile() ) + "]</h2>" );
+            startTable( out );
+            row( out, escape( file.getSourceFile() ), index, index + 1 );
+            out.println( "</table>" );
+
+            out.println( "<h2>COVERAGE BREAKDOWN BY LINE</h2>" );
+            out.println( "<table cellspacing=\"0\" cellpadding=\"0\">" );
+            out.println( "<tr><th>line</th><th>hits</th><th>source</th></tr>" );
+            String text = source == null ? null : source.readLine();
+            for ( int line = 1; line <= file.getLastLine() || text != null; line++ )
+            {
+                int hits = file.getHits( line );
+                if ( hits == LineHits.NOT_EXECUTABLE )
+                {
+                    out.print( "<tr><td>" + line + "</td><td></td>" );
+                }
+                else
+                {
+                    out.print( "<tr bgcolor=\"" + ( hits > 0 ? "#ccffcc" : "#ffcccc" ) + "\"><td>" + line + "</td><td>"
+                        + hits + "</td>" );
+                }
+                out.println( "<td><pre>" + ( text == null ? "" : escape( text ) ) + "</pre></td></tr>" );
+                text = source == null ? null : source.readLine();
+            }
+            out.println( "</table>" );
+            out.println( "</body></html>" );
+        }
+        finally
+        {
+            IOUtil.close( source );
+            IOUtil.close( out );
+        }
+    }
+
+    private BufferedReader openSource( LineHits file )
+        throws IOException
+    {
+        for ( File sourcePath : sourcePaths )
+        {
+            File source = new File( sourcePath, file.getSourcePath() );
+            if ( source.isFile() )
+            {
+                return new BufferedReader( new InputStreamReader( new FileInputStream( source ), encoding ) );
+            }
+        }
+        return null;
+    }
+
+    private Writer open( File output )
+        throws IOException
+    {
+        return new OutputStreamWriter( new FileOutputStream( output ), encoding );
+    }
+
+    private void startPage( PrintWriter out, String title )
+    {
+        out.println( "<html><head><meta http-equiv=\"Content-Type\" content=\"text/html; charset=" + encoding
+            + "\"/><title>" + title + "</title></head><body>" );
+    }
+
+    private static void startTable( PrintWriter out )
+    {
+        out.print( "<table border=\"1\" cellspacing=\"0\" cellpadding=\"2\"><tr><th>name</th>" );
+        for ( String type : TYPES )
+        {
+            out.print( "<th>" + type + "</th>" );
+        }
+        out.println( "</tr>" );
+    }
+
+    private int packageEnd( int start )
+    {
+        String pkg = files.get( start ).getPackageName();
+        int end = start + 1;
+        while ( end < files.size() && pkg.equals( files.get( end ).getPackageName() ) )
+        {
+            end++;
+        }
+        return end;
+    }
+
+    private int countPackages()
+    {
+        int count = 0;
+        int start = 0;
+        while ( start < files.size() )
+        {
+            start = packageEnd( start );
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return the coverage of each of {@link #TYPES}
+     */
+    private String[] coverages( int start, int end )
+    {
+        String probes = format( sum( coveredLines, start, end ), sum( lines, start, end ) );
+        return new String[] { classCoverage( start, end ), probes, probes };
+    }
+
+    private void coverage( XMLWriter w, int start, int end )
+    {
+        String[] coverages = coverages( start, end );
+        for ( int i = 0; i < TYPES.length; i++ )
+        {
+            w.startElement( "coverage" );
+            w.addAttribute( "type", TYPES[i] );
+            w.addAttribute( "value", coverages[i] );
+            w.endElement();
+        }
+    }
+
+    private static String header()
+    {
+        StringBuilder header = new StringBuilder();
+        for ( String type : TYPES )
+        {
+            header.append( '[' ).append( type ).append( "]\t" );
+        }
+        return header.append( "[name]" ).toString();
+    }
+
+    private String columns( int start, int end )
+    {
+        StringBuilder columns = new StringBuilder();
+        for ( String coverage : coverages( start, end ) )
+        {
+            columns.append( coverage ).append( '\t' );
+        }
+        return columns.toString();
+    }
+
+    private void row( PrintWriter out, String name, int start, int end )
+    {
+        out.print( "<tr><td>" + name + "</td>" );
+        for ( String coverage : coverages( start, end ) )
+        {
+            out.print( "<td>" + coverage + "</td>" );
+        }
+        out.println( "</tr>" );
+    }
+
+    private String classCoverage( int start, int end )
+    {
+        int covered = 0;
+        for ( int i = start; i < end; i++ )
+        {
+            if ( coveredLines[i] > 0 )
+            {
+                covered++;
+            }
+        }
+        return format( covered, end - start );
+    }
+
+    private static String format( int covered, int total )
+    {
+        int percent = total == 0 ? 0 : (int) ( ( 100L * covered ) / total );
+        return MessageFormat.format( COVERAGE, String.valueOf( percent ), String.valueOf( covered ),
+                                     String.valueOf( total ) );
+    }
+
+    private static int sum( int[] values, int start, int end )
+    {
+        int sum = 0;
+        for ( int i = start; i < end; i++ )
+        {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    private static void value( XMLWriter w, String name, int value )
+    {
+        w.startElement( name );
+        w.addAttribute( "value", String.valueOf( value ) );
+        w.endElement();
+    }
+
+    private static String simpleName( LineHits file )
+    {
+        String cn = file.getClassname();
+        return cn.substring( cn.lastIndexOf( '.' ) + 1 );
+    }
+
+    private static String escape( String text )
+    {
+        return text.replace( "&", "&amp;" ).replace( "<", "&lt;" ).replace( ">", "&gt;" );
+    }
+
+}
@@ -0,0 +1,170 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.coverage.emma;
+
+import java.util.Arrays;
+
+/**
+ * Line execution counters for a single source file. Counters are kept on a plain <code>int[]</code> indexed by line
+ * number, where {@link #NOT_EXECUTABLE} marks lines that were not instrumented. Lines are numbered from 1, anything
+ * below that the player reports is ignored.
+ */
+final class LineHits
+{
+
+    static final int NOT_EXECUTABLE = -1;
+
+    private static final int INITIAL_SIZE = 64;
+
+    private final String classname;
+
+    private final String sourceFile;
+
+    private int[] hits = new int[0];
+
+    LineHits( String classname, String sourceFile )
+    {
+        this.classname = classname;
+        this.sourceFile = sourceFile;
+    }
+
+    public void addLine( int line )
+    {
+        if ( line < 1 )
+        {
+            return;
+        }
+
+        ensureCapacity( line );
+        if ( hits[line] == NOT_EXECUTABLE )
+        {
+            hits[line] = 0;
+        }
+    }
+
+    public void touch( int line )
+    {
+        if ( line < 1 )
+        {
+            return;
+        }
+
+        ensureCapacity( line );
+        if ( hits[line] == NOT_EXECUTABLE )
+        {
+            hits[line] = 0;
+        }
+        if ( hits[line] < Integer.MAX_VALUE )
+        {
+            hits[line]++;
+        }
+    }
+
+    public String getClassname()
+    {
+        return classname;
+    }
+
+    public String getPackageName()
+    {
+        int i = classname.lastIndexOf( '.' );
+        return i == -1 ? "" : classname.substring( 0, i );
+    }
+
+    public String getSourceFile()
+    {
+        return sourceFile;
+    }
+
+    /**
+     * @return the source file relative to its source root
+     */
+    public String getSourcePath()
+    {
+        String pkg = getPackageName();
+        return pkg.length() == 0 ? sourceFile : pkg.replace( '.', '/' ) + "/" + sourceFile;
+    }
+
+    /**
+     * @return the hits of line, or {@link #NOT_EXECUTABLE}
+     */
+    public int getHits( int line )
+    {
+        return line >= 1 && line < hits.length ? hits[line] : NOT_EXECUTABLE;
+    }
+
+    /**
+     * @return the last executable line, or 0
+     */
+    public int getLastLine()
+    {
+        for ( int line = hits.length - 1; line > 0; line-- )
+        {
+            if ( hits[line] != NOT_EXECUTABLE )
+            {
+                return line;
+            }
+        }
+        return 0;
+    }
+
+    public int getExecutableLines()
+    {
+        int count = 0;
+        for ( int hit : hits )
+        {
+            if ( hit != NOT_EXECUTABLE )
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getCoveredLines()
+    {
+        int count = 0;
+        for ( int hit : hits )
+        {
+            if ( hit > 0 )
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void ensureCapacity( int line )
+    {
+        if ( line < hits.length )
+        {
+            return;
+        }
+
+        int size = Math.max( INITIAL_SIZE, hits.length );
+        while ( size <= line )
+        {
+            size <<= 1;
+        }
+
+        int oldSize = hits.length;
+        hits = Arrays.copyOf( hits, size );
+        Arrays.fill( hits, oldSize, size, NOT_EXECUTABLE );
+    }
+
+}
@@ -0,0 +1,136 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.coverage.cobertura;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
+import net.sourceforge.cobertura.coveragedata.ClassData;
+import net.sourceforge.cobertura.coveragedata.PackageData;
+import net.sourceforge.cobertura.coveragedata.ProjectData;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class MemoizedProjectDataTest
+{
+
+    private ProjectData plain;
+
+    private MemoizedProjectData memoized;
+
+    @BeforeMethod
+    public void createProjectData()
+    {
+        plain = new ProjectData();
+        addClass( "Main", 3, 1 );
+        addClass( "com.acme.Shell", 5, 2 );
+        addClass( "com.acme.util.Strings", 4, 4 );
+        // shares a name prefix with com.acme, without being one of its sub packages
+        addClass( "com.acmex.Other", 2, 0 );
+        addClass( "org.Lib", 6, 3 );
+
+        ClassData shell = plain.getOrCreateClassData( "com.acme.Shell" );
+        shell.addLineJump( 1, 0 );
+        shell.touchJump( 1, 0, true, 1 );
+
+        memoized = new MemoizedProjectData( plain );
+    }
+
+    private void addClass( String name, int lines, int covered )
+    {
+        ClassData classData = plain.getOrCreateClassData( name );
+        classData.setSourceFileName( name.replace( '.', '/' ) + ".as" );
+        for ( int line = 1; line <= lines; line++ )
+        {
+            classData.addLine( line, null, null );
+        }
+        for ( int line = 1; line <= covered; line++ )
+        {
+            classData.touch( line, 1 );
+        }
+    }
+
+    @Test
+    public void subPackages()
+    {
+        for ( String packageName : new String[] { "", "com", "com.acme", "com.acme.util", "com.acmex", "org",
+            "missing" } )
+        {
+            assertThat( packageName, names( memoized.getSubPackages( packageName ) ),
+                        equalTo( names( plain.getSubPackages( packageName ) ) ) );
+        }
+        assertThat( names( memoized.getSubPackages( "com.acme" ) ), equalTo( names( "com.acme", "com.acme.util" ) ) );
+    }
+
+    @Test
+    public void packages()
+    {
+        assertThat( names( memoized.getPackages() ), equalTo( names( plain.getPackages() ) ) );
+        assertThat( memoized.getSourceFiles().size(), equalTo( plain.getSourceFiles().size() ) );
+
+        Iterator<?> actualPackages = memoized.getPackages().iterator();
+        for ( Object packageData : plain.getPackages() )
+        {
+            PackageData expected = (PackageData) packageData;
+            PackageData actual = (PackageData) actualPackages.next();
+            assertThat( actual.getName(), equalTo( expected.getName() ) );
+            assertThat( actual.getNumberOfValidLines(), equalTo( expected.getNumberOfValidLines() ) );
+            assertThat( actual.getNumberOfCoveredLines(), equalTo( expected.getNumberOfCoveredLines() ) );
+            assertThat( actual.getLineCoverageRate(), equalTo( expected.getLineCoverageRate() ) );
+            assertThat( actual.getBranchCoverageRate(), equalTo( expected.getBranchCoverageRate() ) );
+        }
+    }
+
+    @Test
+    public void totals()
+    {
+        assertThat( memoized.getNumberOfValidLines(), equalTo( plain.getNumberOfValidLines() ) );
+        assertThat( memoized.getNumberOfCoveredLines(), equalTo( plain.getNumberOfCoveredLines() ) );
+        assertThat( memoized.getNumberOfValidBranches(), equalTo( plain.getNumberOfValidBranches() ) );
+        assertThat( memoized.getNumberOfCoveredBranches(), equalTo( plain.getNumberOfCoveredBranches() ) );
+        assertThat( memoized.getLineCoverageRate(), equalTo( plain.getLineCoverageRate() ) );
+        assertThat( memoized.getBranchCoverageRate(), equalTo( plain.getBranchCoverageRate() ) );
+    }
+
+    private static List<String> names( Collection<?> packages )
+    {
+        List<String> names = new ArrayList<String>();
+        for ( Object packageData : packages )
+        {
+            names.add( ( (PackageData) packageData ).getName() );
+        }
+        return names;
+    }
+
+    private static List<String> names( String... names )
+    {
+        List<String> list = new ArrayList<String>();
+        for ( String name : names )
+        {
+            list.add( name );
+        }
+        return list;
+    }
+
+}
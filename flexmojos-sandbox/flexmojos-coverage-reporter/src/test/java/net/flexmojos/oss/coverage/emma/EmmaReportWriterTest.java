@@ -0,0 +1,180 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.coverage.emma;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.codehaus.plexus.util.IOUtil;
+import org.codehaus.plexus.util.xml.Xpp3Dom;
+import org.codehaus.plexus.util.xml.Xpp3DomBuilder;
+import org.testng.annotations.Test;
+
+public class EmmaReportWriterTest
+{
+
+    @Test
+    public void lineHits()
+    {
+        LineHits hits = new LineHits( "com.foo.util.Abc", "Abc.as" );
+        hits.addLine( 3 );
+        hits.addLine( 200 );
+        hits.touch( 3 );
+        hits.touch( 3 );
+        hits.touch( 7 );
+
+        assertThat( hits.getExecutableLines(), equalTo( 3 ) );
+        assertThat( hits.getCoveredLines(), equalTo( 2 ) );
+        assertThat( hits.getPackageName(), equalTo( "com.foo.util" ) );
+        assertThat( new LineHits( "formatDate", "formatDate.as" ).getPackageName(), equalTo( "" ) );
+        assertThat( hits.getSourcePath(), equalTo( "com/foo/util/Abc.as" ) );
+        assertThat( hits.getHits( 3 ), equalTo( 2 ) );
+        assertThat( hits.getHits( 4 ), equalTo( LineHits.NOT_EXECUTABLE ) );
+        assertThat( hits.getLastLine(), equalTo( 200 ) );
+    }
+
+    @Test
+    public void invalidLinesIgnored()
+    {
+        LineHits hits = new LineHits( "com.foo.util.Abc", "Abc.as" );
+        hits.addLine( 0 );
+        hits.addLine( -5 );
+        hits.touch( -1 );
+        hits.touch( Integer.MIN_VALUE );
+        hits.touch( 0 );
+
+        assertThat( hits.getExecutableLines(), equalTo( 0 ) );
+        assertThat( hits.getCoveredLines(), equalTo( 0 ) );
+        assertThat( hits.getHits( -1 ), equalTo( LineHits.NOT_EXECUTABLE ) );
+
+        hits.touch( 1 );
+        assertThat( hits.getCoveredLines(), equalTo( 1 ) );
+    }
+
+    @Test
+    public void packageSplitBySubpackage()
+        throws Exception
+    {
+        // classname order, as AS3 package level functions and lowercase names produce it
+        List<LineHits> files =
+            Arrays.asList( hits( "com.foo.util.Abc", 1, 2 ), hits( "com.foo.util.collections.X" ),
+                           hits( "com.foo.util.formatDate", 1 ) );
+
+        File output = File.createTempFile( "coverage", ".xml" );
+        output.deleteOnExit();
+        new EmmaReportWriter( files, null, "UTF-8" ).writeXml( output );
+
+        Xpp3Dom report = read( output );
+        assertThat( report.getChild( "stats" ).getChild( "packages" ).getAttribute( "value" ), equalTo( "2" ) );
+
+        Xpp3Dom[] packages = report.getChild( "data" ).getChild( "all" ).getChildren( "package" );
+        List<String> names = new ArrayList<String>();
+        for ( Xpp3Dom pkg : packages )
+        {
+            names.add( pkg.getAttribute( "name" ) );
+        }
+        assertThat( names, equalTo( Arrays.asList( "com.foo.util", "com.foo.util.collections" ) ) );
+
+        Xpp3Dom[] util = packages[0].getChildren( "coverage" );
+        assertThat( util[0].getAttribute( "type" ), equalTo( "class, %" ) );
+        assertThat( util[0].getAttribute( "value" ), equalTo( "100%  (2/2)" ) );
+        assertThat( util[1].getAttribute( "type" ), equalTo( "block, %" ) );
+        assertThat( util[1].getAttribute( "value" ), equalTo( "75%  (3/4)" ) );
+        assertThat( util[2].getAttribute( "type" ), equalTo( "line, %" ) );
+        assertThat( util[2].getAttribute( "value" ), equalTo( "75%  (3/4)" ) );
+        assertThat( packages[0].getChildren( "srcfile" ).length, equalTo( 2 ) );
+
+        Xpp3Dom[] collections = packages[1].getChildren( "coverage" );
+        assertThat( collections[0].getAttribute( "value" ), equalTo( "0%  (0/1)" ) );
+        assertThat( collections[2].getAttribute( "value" ), equalTo( "0%  (0/2)" ) );
+    }
+
+    @Test
+    public void sourcePages()
+        throws Exception
+    {
+        File directory = new File( "target/emma-report" ).getAbsoluteFile();
+        FileUtils.deleteDirectory( directory );
+        File sources = new File( directory, "src" );
+        File source = new File( sources, "com/foo/util/Abc.as" );
+        source.getParentFile().mkdirs();
+        FileUtils.fileWrite( source.getPath(), "UTF-8", "package com.foo.util {\n  one();\n  two();\n}\n" );
+
+        // lines 2 and 3 executable, line 2 covered
+        LineHits hits = new LineHits( "com.foo.util.Abc", "Abc.as" );
+        hits.addLine( 2 );
+        hits.addLine( 3 );
+        hits.touch( 2 );
+
+        File index = new File( directory, "index.html" );
+        new EmmaReportWriter( Arrays.asList( hits, hits( "com.foo.Missing" ) ), Arrays.asList( sources ), "UTF-8" )
+            .writeHtml( index );
+
+        String html = FileUtils.fileRead( index, "UTF-8" );
+        assertThat( html, containsString( "<a href=\"_files/1.html\">Abc.as</a>" ) );
+
+        String page = FileUtils.fileRead( new File( directory, "_files/1.html" ), "UTF-8" );
+        assertThat( page, containsString( "<tr><td>1</td><td></td><td><pre>package com.foo.util {</pre></td></tr>" ) );
+        assertThat( page, containsString( "<tr bgcolor=\"#ccffcc\"><td>2</td><td>1</td><td><pre>  one();</pre>" ) );
+        assertThat( page, containsString( "<tr bgcolor=\"#ffcccc\"><td>3</td><td>0</td><td><pre>  two();</pre>" ) );
+        assertThat( page, containsString( "<tr><td>4</td><td></td><td><pre>}</pre></td></tr>" ) );
+
+        // without its source, a page still lists the hits
+        String missing = FileUtils.fileRead( new File( directory, "_files/0.html" ), "UTF-8" );
+        assertThat( missing, containsString( "<tr bgcolor=\"#ffcccc\"><td>2</td><td>0</td><td><pre></pre>" ) );
+    }
+
+    /**
+     * Two executable lines per class, of which the given ones are covered
+     */
+    private LineHits hits( String classname, int... touched )
+    {
+        LineHits hits = new LineHits( classname, classname.substring( classname.lastIndexOf( '.' ) + 1 ) + ".as" );
+        hits.addLine( 1 );
+        hits.addLine( 2 );
+        for ( int line : touched )
+        {
+            hits.touch( line );
+        }
+        return hits;
+    }
+
+    private Xpp3Dom read( File output )
+        throws Exception
+    {
+        Reader reader = new FileReader( output );
+        try
+        {
+            return Xpp3DomBuilder.build( reader );
+        }
+        finally
+        {
+            IOUtil.close( reader );
+        }
+    }
+
+}
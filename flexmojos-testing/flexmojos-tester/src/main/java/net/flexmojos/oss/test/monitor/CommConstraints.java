@@ -26,6 +26,10 @@ public class CommConstraints
 
     public static final String ACK_OF_TEST_RESULT = "<endOfTestRunAck/>";
 
+    public static final String END_OF_COVERAGE_DATA = "</coverageData>";
+
+    public static final String ACK_OF_COVERAGE_DATA = "<coverageDataAck/>";
+
     public static final char NULL_BYTE = '\u0000';
 
     public static final String STATUS = "Server Status";
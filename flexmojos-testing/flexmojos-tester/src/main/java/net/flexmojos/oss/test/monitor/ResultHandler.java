@@ -17,16 +17,23 @@
  */
 package net.flexmojos.oss.test.monitor;
 
+import static net.flexmojos.oss.test.monitor.CommConstraints.ACK_OF_COVERAGE_DATA;
 import static net.flexmojos.oss.test.monitor.CommConstraints.ACK_OF_TEST_RESULT;
+import static net.flexmojos.oss.test.monitor.CommConstraints.END_OF_COVERAGE_DATA;
 import static net.flexmojos.oss.test.monitor.CommConstraints.END_OF_TEST_RUN;
 import static net.flexmojos.oss.test.monitor.CommConstraints.END_OF_TEST_SUITE;
 import static net.flexmojos.oss.test.monitor.CommConstraints.NULL_BYTE;
 
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
 import java.net.SocketException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.codehaus.plexus.component.annotations.Component;
@@ -46,6 +53,9 @@ public class ResultHandler
 
     protected List<String> testReportData;
 
+    /**
+     * @return test suite reports and coverage data chunks, in the order the testrunner sent them
+     */
     public List<String> getTestReportData()
     {
         return testReportData;
@@ -54,7 +64,10 @@ public class ResultHandler
     protected void handleRequest()
         throws SocketException, IOException
     {
-        StringBuffer buffer = new StringBuffer();
+        Reader in = new BufferedReader( new InputStreamReader( super.in, "UTF-8" ) );
+        Writer out = new BufferedWriter( new OutputStreamWriter( super.out, "UTF-8" ) );
+
+        StringBuilder buffer = new StringBuilder();
         int bite = -1;
 
         while ( ( bite = in.read() ) != -1 )
@@ -65,7 +78,7 @@ public class ResultHandler
             {
                 final String data = buffer.toString();
                 getLogger().debug( "[RESULT] Recivied data: " + data );
-                buffer = new StringBuffer();
+                buffer.setLength( 0 );
 
                 if ( data.endsWith( END_OF_TEST_SUITE ) )
                 {
@@ -73,13 +86,21 @@ public class ResultHandler
 
                     this.testReportData.add( data );
                 }
+                else if ( data.endsWith( END_OF_COVERAGE_DATA ) )
+                {
+                    getLogger().debug( "[RESULT] Coverage data - sending ACK: " + ACK_OF_COVERAGE_DATA );
+
+                    this.testReportData.add( data );
+
+                    // the testrunner holds the next coverage chunk until this one is acknowledged
+                    out.write( ACK_OF_COVERAGE_DATA + NULL_BYTE );
+                    out.flush();
+                }
                 else if ( data.equals( END_OF_TEST_RUN ) )
                 {
                     getLogger().debug( "[RESULT] End test run - sending ACK: " + ACK_OF_TEST_RESULT );
 
                     // Sending the acknowledgement to testrunner
-
-                    BufferedWriter out = new BufferedWriter( new OutputStreamWriter( super.out ) );
                     out.write( ACK_OF_TEST_RESULT + NULL_BYTE );
                     out.flush();
                     break;
@@ -99,7 +120,7 @@ public class ResultHandler
         reset();
 
         testReportPort = testPort;
-        testReportData = new ArrayList<String>();
+        testReportData = Collections.synchronizedList( new ArrayList<String>() );
 
         launch();
     }
@@ -18,15 +18,23 @@
 package net.flexmojos.oss.test.monitor;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static net.flexmojos.oss.test.monitor.CommConstraints.ACK_OF_COVERAGE_DATA;
+import static net.flexmojos.oss.test.monitor.CommConstraints.ACK_OF_TEST_RESULT;
+import static net.flexmojos.oss.test.monitor.CommConstraints.END_OF_COVERAGE_DATA;
 import static net.flexmojos.oss.test.monitor.CommConstraints.END_OF_TEST_RUN;
 import static net.flexmojos.oss.test.monitor.CommConstraints.END_OF_TEST_SUITE;
 import static net.flexmojos.oss.test.monitor.CommConstraints.NULL_BYTE;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.util.concurrent.TimeUnit;
 
 import org.codehaus.plexus.PlexusTestNGCase;
 import org.codehaus.plexus.util.IOUtil;
@@ -143,4 +151,102 @@ public class ResultHandlerTest
         assertEquals( result.getTestReportData().size(), 2 );
         assertThat( result.getTestReportData(), IsCollectionContaining.hasItems( REPORT1, REPORT2 ) );
     }
+
+    @Test( timeOut = 30000 )
+    public void sendCoverageUnderLoad()
+        throws Exception
+    {
+        final int chunks = 200;
+        // generous: a healthy handler moves these ~14MB in about a second, per byte or per chunk stalls don't
+        final long deadline = TimeUnit.SECONDS.toMillis( 15 );
+
+        result.start( port );
+
+        do
+        {
+            Thread.yield();
+            Thread.sleep( 100 );
+        }
+        while ( !ThreadStatus.STARTED.equals( result.getStatus() ) );
+
+        Socket s = new Socket( "localhost", port );
+        OutputStream out = s.getOutputStream();
+        InputStream in = s.getInputStream();
+
+        byte[][] messages = new byte[chunks][];
+        for ( int i = 0; i < chunks; i++ )
+        {
+            messages[i] = ( coverageChunk( i ) + NULL_BYTE ).getBytes( "UTF-8" );
+        }
+
+        int acks = 0;
+        long start = System.currentTimeMillis();
+        for ( int i = 0; i < chunks; i++ )
+        {
+            out.write( messages[i] );
+            out.flush();
+
+            // like the player, wait for the ack before sending the next chunk
+            assertEquals( readMessage( in ), ACK_OF_COVERAGE_DATA );
+            acks++;
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue( elapsed < deadline, chunks + " acknowledged coverage chunks took " + elapsed + "ms, more than "
+            + deadline + "ms" );
+
+        IOUtil.copy( REPORT1, out );
+        IOUtil.copy( String.valueOf( NULL_BYTE ), out );
+        IOUtil.copy( END_OF_TEST_RUN, out );
+        IOUtil.copy( String.valueOf( NULL_BYTE ), out );
+
+        assertEquals( readMessage( in ), ACK_OF_TEST_RESULT );
+
+        do
+        {
+            Thread.yield();
+            Thread.sleep( 100 );
+        }
+        while ( !ThreadStatus.DONE.equals( result.getStatus() ) );
+
+        s.close();
+
+        assertEquals( acks, chunks );
+        assertEquals( result.getTestReportData().size(), chunks + 1 );
+        for ( int i = 0; i < chunks; i++ )
+        {
+            assertThat( result.getTestReportData().get( i ), equalTo( coverageChunk( i ) ) );
+        }
+        assertThat( result.getTestReportData().get( chunks ), equalTo( REPORT1 ) );
+    }
+
+    /**
+     * 4096 touches, over classes named after the chunk so a mixed up or truncated chunk is noticed
+     */
+    private String coverageChunk( int index )
+    {
+        StringBuilder chunk = new StringBuilder( "<coverageData>" );
+        for ( int i = 0; i < 64; i++ )
+        {
+            chunk.append( "<coverage classname=\"/src;net\\flexmojos;Class" ).append( index ).append( '_' ).append( i );
+            chunk.append( ".as\">" );
+            for ( int line = 1; line <= 64; line++ )
+            {
+                chunk.append( "<touch>" ).append( line ).append( "</touch>" );
+            }
+            chunk.append( "</coverage>" );
+        }
+        return chunk.append( END_OF_COVERAGE_DATA ).toString();
+    }
+
+    private String readMessage( InputStream in )
+        throws IOException
+    {
+        StringBuilder message = new StringBuilder();
+        int bite;
+        while ( ( bite = in.read() ) != -1 && bite != NULL_BYTE )
+        {
+            message.append( (char) bite );
+        }
+        return message.toString();
+    }
 }
@@ -18,34 +18,72 @@
 package apparat.coverage
 {
 	import net.flexmojos.oss.coverage.CoverageDataCollector;
-	import net.flexmojos.oss.test.report.TestCoverageReport;
-	import mx.collections.ArrayCollection;
 
 	public class Coverage
 	{
 
+		/**
+		 * file -> line -> true once collected, false while the collector buffer was full, so each line is only
+		 * collected once and refused lines are kept without growing the buffer
+		 */
 		private static var cache:Object=new Object();
 
+		/**
+		 * Number of lines marked false in the cache
+		 */
+		private static var refused:int=0;
+
 		public static function onSample(file:String, line:int):void
 		{
-			if (cache[file] == null)
+			var lines:Object=cache[file];
+			if (lines == null)
+			{
+				lines=new Object();
+				cache[file]=lines;
+			}
+			else if (line in lines)
 			{
-				cache[file]=new ArrayCollection();
-				ArrayCollection(cache[file]).addItem(line);
+				return;
+			}
+
+			if (CoverageDataCollector.collect(file, line))
+			{
+				lines[line]=true;
 			}
 			else
 			{
-				if (ArrayCollection(cache[file]).contains(line))
+				lines[line]=false;
+				refused++;
+				CoverageDataCollector.onBufferAvailable=collectRefused;
+			}
+		}
+
+		/**
+		 * Offers the refused lines again, until none is left or the buffer is full again.
+		 */
+		private static function collectRefused():void
+		{
+			for (var file:String in cache)
+			{
+				if (refused == 0)
 				{
 					return;
 				}
-				else
+
+				var lines:Object=cache[file];
+				for (var line:String in lines)
 				{
-					ArrayCollection(cache[file]).addItem(line);
+					if (lines[line] === false)
+					{
+						if (!CoverageDataCollector.collect(file, int(line)))
+						{
+							return;
+						}
+						lines[line]=true;
+						refused--;
+					}
 				}
 			}
-
-			CoverageDataCollector.collect(file, line);
 		}
 	}
 }
@@ -21,14 +21,45 @@ package net.flexmojos.oss.coverage
 
     public class CoverageDataCollector
     {
+        /**
+         * Number of touches the buffer holds. Once full it asks to be flushed and refuses touches until it is.
+         */
+        public static const BUFFER_SIZE:int = 4096;
+
         public function CoverageDataCollector()
         {
         }
 
         private static var map:Object = new Object();
 
-        public static function collect( classname:String, lineNumber:int ):void
+        private static var size:int = 0;
+
+        /**
+         * True while the final results take every touch left, regardless of the buffer size.
+         */
+        private static var draining:Boolean = false;
+
+        /**
+         * Called once the buffer is full. While the previous chunk is still waiting for the result socket
+         * acknowledgement it may ignore the call, the buffer then stays full until the next flush.
+         */
+        public static var onBufferFull:Function;
+
+        /**
+         * Called once the buffer has room again, so touches refused meanwhile can be collected.
+         */
+        public static var onBufferAvailable:Function;
+
+        /**
+         * @return false, leaving the touch to the caller to offer again on onBufferAvailable, if the buffer is full
+         */
+        public static function collect( classname:String, lineNumber:int ):Boolean
         {
+            if ( size >= BUFFER_SIZE && !draining )
+            {
+                return false;
+            }
+
             var data:TestCoverageReport;
             if ( ( data = map[ classname ] ) == null )
             {
@@ -37,14 +68,70 @@ package net.flexmojos.oss.coverage
             }
 
             data.touch( lineNumber );
+
+            if ( ++size >= BUFFER_SIZE && !draining && onBufferFull != null )
+            {
+                onBufferFull();
+            }
+            return true;
+        }
+
+        public static function get bufferedTouches():int
+        {
+            return size;
         }
 
+        /**
+         * Extracts every touch left, including the ones refused while the buffer was full, for the final results.
+         */
         public static function extractCoverageResult():Object
+        {
+            draining = true;
+            try
+            {
+                bufferAvailable();
+            }
+            finally
+            {
+                draining = false;
+            }
+            return take();
+        }
+
+        /**
+         * Extracts the buffered touches as a standalone coverage chunk, then lets refused touches refill the buffer.
+         */
+        public static function extractCoverageData():String
+        {
+            var genxml:Array = [ "<coverageData>" ];
+
+            var data:Object = take();
+            for ( var cls:String in data )
+            {
+                genxml.push( TestCoverageReport( data[ cls ] ).toXml() );
+            }
+
+            genxml.push( "</coverageData>" );
+
+            bufferAvailable();
+            return genxml.join( "" );
+        }
+
+        private static function take():Object
         {
             var result:Object = map;
             map = new Object();
+            size = 0;
             return result;
         }
 
+        private static function bufferAvailable():void
+        {
+            if ( onBufferAvailable != null )
+            {
+                onBufferAvailable();
+            }
+        }
+
     }
-}
\ No newline at end of file
+}
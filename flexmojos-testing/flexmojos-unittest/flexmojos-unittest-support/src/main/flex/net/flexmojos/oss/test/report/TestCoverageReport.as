@@ -36,18 +36,18 @@ package net.flexmojos.oss.test.report
 
         public function touch( lineNumber:int ):void
         {
-            touchs.splice( touchs.length, 0, lineNumber );
+            touchs.push( lineNumber );
         }
 
         public function toXml():String
         {
             var genxml:String = "<coverage classname=\""+ classname + "\">";
 
-            for each ( var line:int in touchs )
+            if ( touchs.length > 0 )
             {
-                  genxml = genxml.concat("<touch>",line,"</touch>");
+                genxml += "<touch>" + touchs.join( "</touch><touch>" ) + "</touch>";
             }
-            
+
             genxml += "</coverage>";
 
             return genxml;
@@ -26,6 +26,7 @@ package net.flexmojos.oss.unitestingsupport
 	
 	import mx.binding.utils.BindingUtils;
 	
+	import net.flexmojos.oss.coverage.CoverageDataCollector;
 	import net.flexmojos.oss.test.monitor.CommConstraints;
 	import net.flexmojos.oss.test.report.ErrorReport;
 	import net.flexmojos.oss.test.report.TestCaseReport;
@@ -148,12 +149,42 @@ package net.flexmojos.oss.unitestingsupport
 			return reportObject;
 		}
 
+		/**
+		 * True while a coverage chunk waits for the ResultHandler acknowledgement.
+		 */
+		private var coverageInFlight:Boolean=false;
+
+		private var connected:Boolean=false;
+
+		private var resultsPending:Boolean=false;
+
 		/**
 		 * Sends the results. This sends the reports back to the controlling Ant
 		 * task using an XMLSocket.
 		 */
 		private function sendResults():void
 		{
+			resultsPending=true;
+			openSocket();
+			sendPending();
+		}
+
+		/**
+		 * Called by the CoverageDataCollector when its buffer is full.
+		 */
+		private function flushCoverage():void
+		{
+			openSocket();
+			sendPending();
+		}
+
+		private function openSocket():void
+		{
+			if (socket)
+			{
+				return;
+			}
+
 			// Open an XML socket.
 			socket=new XMLSocket();
 			socket.addEventListener(Event.CONNECT, handleConnect);
@@ -162,6 +193,35 @@ package net.flexmojos.oss.unitestingsupport
 		}
 
 		private function handleConnect(event:Event):void
+		{
+			connected=true;
+			sendPending();
+		}
+
+		/**
+		 * Only one coverage chunk is sent at a time, the next one waits for the
+		 * acknowledgement so a slow ResultHandler holds the data on the player side.
+		 */
+		private function sendPending():void
+		{
+			if (!connected || coverageInFlight)
+			{
+				return;
+			}
+
+			if (CoverageDataCollector.bufferedTouches >= CoverageDataCollector.BUFFER_SIZE)
+			{
+				coverageInFlight=true;
+				socket.send(CoverageDataCollector.extractCoverageData());
+			}
+			else if (resultsPending)
+			{
+				resultsPending=false;
+				sendReports();
+			}
+		}
+
+		private function sendReports():void
 		{
 			for (var className:String in reports)
 			{
@@ -185,8 +245,13 @@ package net.flexmojos.oss.unitestingsupport
 		{
 			var data:String=event.data;
 
-			// If we received an acknowledgement finish-up.			
-			if (data == CommConstraints.ACK_OF_TEST_RESULT)
+			if (data == CommConstraints.ACK_OF_COVERAGE_DATA)
+			{
+				coverageInFlight=false;
+				sendPending();
+			}
+			// If we received an acknowledgement finish-up.
+			else if (data == CommConstraints.ACK_OF_TEST_RESULT)
 			{
 				exit();
 			}
@@ -292,6 +357,7 @@ package net.flexmojos.oss.unitestingsupport
 			if (instance == null)
 			{
 				instance=new SocketReporter();
+				CoverageDataCollector.onBufferFull=instance.flushCoverage;
 
 				var checkIsDone:Function=function(e:*):void
 					{
@@ -28,12 +28,32 @@ abstract class AbstractArtifactMatcher<E>
 
     private Matcher<? extends String> elementMatcher;
 
+    /**
+     * The exact value expected, when this matcher was created from one, so lookups can use an index
+     */
+    private String expected;
+
     public AbstractArtifactMatcher( Matcher<? extends String> elementMatcher, String element )
     {
         this.elementMatcher = elementMatcher;
         this.element = element;
     }
 
+    String getElement()
+    {
+        return element;
+    }
+
+    String getExpected()
+    {
+        return expected;
+    }
+
+    void setExpected( String expected )
+    {
+        this.expected = expected;
+    }
+
     public void describeTo( Description description )
     {
         description.appendText( "a dependency with " + element + " " ).appendDescriptionOf( elementMatcher );
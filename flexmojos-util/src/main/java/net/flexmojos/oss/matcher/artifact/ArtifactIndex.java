@@ -0,0 +1,149 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.matcher.artifact;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.hamcrest.Matcher;
+
+/**
+ * Immutable view of a set of artifacts, indexed by type, scope and classifier. Selections made with the exact value
+ * matchers from {@link ArtifactMatcher} only visit the artifacts with that value, the remaining matchers are then
+ * checked against those.
+ */
+public class ArtifactIndex
+{
+
+    private final List<Artifact> all;
+
+    private final Map<String, Map<String, List<Artifact>>> indexes = new HashMap<String, Map<String, List<Artifact>>>();
+
+    public ArtifactIndex( Set<Artifact> artifacts )
+    {
+        this.all = Collections.unmodifiableList( new ArrayList<Artifact>( artifacts ) );
+
+        Map<String, List<Artifact>> types = new HashMap<String, List<Artifact>>();
+        Map<String, List<Artifact>> scopes = new HashMap<String, List<Artifact>>();
+        Map<String, List<Artifact>> classifiers = new HashMap<String, List<Artifact>>();
+        for ( Artifact artifact : all )
+        {
+            add( types, artifact.getType(), artifact );
+            add( scopes, artifact.getScope(), artifact );
+            add( classifiers, artifact.getClassifier(), artifact );
+        }
+        indexes.put( "type", types );
+        indexes.put( "scope", scopes );
+        indexes.put( "classifier", classifiers );
+    }
+
+    private static void add( Map<String, List<Artifact>> index, String key, Artifact artifact )
+    {
+        List<Artifact> list = index.get( key );
+        if ( list == null )
+        {
+            list = new ArrayList<Artifact>();
+            index.put( key, list );
+        }
+        list.add( artifact );
+    }
+
+    /**
+     * @return the artifacts matching all matchers, in the original order
+     */
+    public Set<Artifact> select( Matcher<? extends Artifact>... matchers )
+    {
+        Set<Artifact> selected = new LinkedHashSet<Artifact>();
+        for ( Artifact artifact : getCandidates( matchers ) )
+        {
+            if ( matchesAll( artifact, matchers ) )
+            {
+                selected.add( artifact );
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * @return the first artifact matching all matchers, or null
+     */
+    public Artifact selectFirst( Matcher<? extends Artifact>... matchers )
+    {
+        for ( Artifact artifact : getCandidates( matchers ) )
+        {
+            if ( matchesAll( artifact, matchers ) )
+            {
+                return artifact;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matchesAll( Artifact artifact, Matcher<? extends Artifact>... matchers )
+    {
+        for ( Matcher<? extends Artifact> matcher : matchers )
+        {
+            if ( !matcher.matches( artifact ) )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the smallest indexed list any of the matchers narrows the selection to
+     */
+    private Collection<Artifact> getCandidates( Matcher<? extends Artifact>... matchers )
+    {
+        Collection<Artifact> candidates = all;
+        for ( Matcher<? extends Artifact> matcher : matchers )
+        {
+            if ( !( matcher instanceof AbstractArtifactMatcher ) )
+            {
+                continue;
+            }
+
+            AbstractArtifactMatcher<?> artifactMatcher = (AbstractArtifactMatcher<?>) matcher;
+            Map<String, List<Artifact>> index = indexes.get( artifactMatcher.getElement() );
+            if ( index == null || artifactMatcher.getExpected() == null )
+            {
+                continue;
+            }
+
+            List<Artifact> indexed = index.get( artifactMatcher.getExpected() );
+            if ( indexed == null )
+            {
+                return Collections.emptyList();
+            }
+            if ( indexed.size() < candidates.size() )
+            {
+                candidates = indexed;
+            }
+        }
+        return candidates;
+    }
+
+}
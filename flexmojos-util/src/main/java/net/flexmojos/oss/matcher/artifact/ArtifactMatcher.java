@@ -136,7 +136,9 @@ public class ArtifactMatcher
 
     public static ClassifierMatcher classifier( String classifier )
     {
-        return classifier( equalTo( classifier ) );
+        ClassifierMatcher matcher = classifier( equalTo( classifier ) );
+        matcher.setExpected( classifier );
+        return matcher;
     }
 
     public static GroupIdMatcher groupId( Matcher<? extends String> groupId )
@@ -156,7 +158,9 @@ public class ArtifactMatcher
 
     public static ScopeMatcher scope( String scope )
     {
-        return scope( equalTo( scope ) );
+        ScopeMatcher matcher = scope( equalTo( scope ) );
+        matcher.setExpected( scope );
+        return matcher;
     }
 
     public static TypeMatcher type( Matcher<? extends String> type )
@@ -166,7 +170,9 @@ public class ArtifactMatcher
 
     public static TypeMatcher type( String type )
     {
-        return type( equalTo( type ) );
+        TypeMatcher matcher = type( equalTo( type ) );
+        matcher.setExpected( type );
+        return matcher;
     }
 
     public static VersionMatcher version( Matcher<? extends String> versionMatcher )
@@ -0,0 +1,115 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.util;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content hashes used to tell whether build inputs changed between runs.
+ */
+public class DigestUtil
+{
+
+    public static final String SHA_256 = "SHA-256";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    public static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance( SHA_256 );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            // every java runtime is required to provide SHA-256
+            throw new IllegalStateException( e );
+        }
+    }
+
+    public static String sha256( File file )
+        throws IOException
+    {
+        MessageDigest digest = newDigest();
+        InputStream in = new BufferedInputStream( new FileInputStream( file ) );
+        try
+        {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ( ( read = in.read( buffer ) ) != -1 )
+            {
+                digest.update( buffer, 0, read );
+            }
+        }
+        finally
+        {
+            in.close();
+        }
+        return toHex( digest.digest() );
+    }
+
+    /**
+     * Copies in to out, hashing the bytes on the way.
+     * 
+     * @return the SHA-256 of everything copied
+     */
+    public static String copy( InputStream in, OutputStream out )
+        throws IOException
+    {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ( ( read = in.read( buffer ) ) != -1 )
+        {
+            digest.update( buffer, 0, read );
+            out.write( buffer, 0, read );
+        }
+        return toHex( digest.digest() );
+    }
+
+    public static String sha256( String value )
+    {
+        try
+        {
+            return toHex( newDigest().digest( value.getBytes( "UTF-8" ) ) );
+        }
+        catch ( IOException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    public static String toHex( byte[] bytes )
+    {
+        char[] chars = new char[bytes.length * 2];
+        for ( int i = 0; i < bytes.length; i++ )
+        {
+            chars[i * 2] = HEX[( bytes[i] >> 4 ) & 0xf];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xf];
+        }
+        return new String( chars );
+    }
+
+}
@@ -19,11 +19,15 @@ package net.flexmojos.oss.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * this class provides functions used to generate a relative path from two absolute paths
@@ -34,11 +38,88 @@ import java.util.List;
 public class PathUtil
 {
 
+    /**
+     * Upper bound of remembered canonical files and paths
+     */
+    public static final int CACHE_SIZE = 16384;
+
+    private static final Map<File, File> CANONICAL_FILES = newCache();
+
+    private static final Map<File, String> CANONICAL_PATHS = newCache();
+
+    private static WeakReference<Object> build = new WeakReference<Object>( null );
+
     static
     {
         new PathUtil();
     }
 
+    private static <V> Map<File, V> newCache()
+    {
+        return Collections.synchronizedMap( new LinkedHashMap<File, V>( 256, 0.75f, true )
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<File, V> eldest )
+            {
+                return size() > CACHE_SIZE;
+            }
+        } );
+    }
+
+    /**
+     * Forgets every canonical file and path. Must be called when a new build starts.
+     */
+    public static void clearCache()
+    {
+        CANONICAL_FILES.clear();
+        CANONICAL_PATHS.clear();
+    }
+
+    /**
+     * Ties the remembered canonical files and paths to a build, forgetting them when a different build asks. The build
+     * is only weakly held, so a finished one can be collected.
+     */
+    public static synchronized void scope( Object build )
+    {
+        if ( PathUtil.build.get() != build )
+        {
+            clearCache();
+            PathUtil.build = new WeakReference<Object>( build );
+        }
+    }
+
+    /**
+     * Forgets the canonical form of a file, and of anything below it, the build has just created, moved or deleted.
+     */
+    public static void invalidate( File file )
+    {
+        if ( file == null )
+        {
+            return;
+        }
+
+        String prefix = file.getAbsolutePath();
+        invalidate( CANONICAL_FILES, prefix );
+        invalidate( CANONICAL_PATHS, prefix );
+    }
+
+    private static void invalidate( Map<File, ?> cache, String prefix )
+    {
+        synchronized ( cache )
+        {
+            for ( Iterator<File> iterator = cache.keySet().iterator(); iterator.hasNext(); )
+            {
+                String path = iterator.next().getAbsolutePath();
+                if ( path != null && ( path.equals( prefix ) || path.startsWith( prefix + File.separator ) ) )
+                {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
     public static boolean existAll( File... files )
     {
         if ( files == null )
@@ -148,14 +229,26 @@ public class PathUtil
             return null;
         }
 
+        File canonical = CANONICAL_FILES.get( file );
+        if ( canonical != null )
+        {
+            return canonical;
+        }
+
         try
         {
-            return file.getCanonicalFile();
+            canonical = file.getCanonicalFile();
         }
         catch ( IOException e )
         {
             return file.getAbsoluteFile();
         }
+
+        if ( canonical != null )
+        {
+            CANONICAL_FILES.put( file, canonical );
+        }
+        return canonical;
     }
 
     public static File file( String path )
@@ -377,14 +470,26 @@ public class PathUtil
             return null;
         }
 
+        String canonical = CANONICAL_PATHS.get( file );
+        if ( canonical != null )
+        {
+            return canonical;
+        }
+
         try
         {
-            return file.getCanonicalPath();
+            canonical = file.getCanonicalPath();
         }
         catch ( IOException e )
         {
             return file.getAbsolutePath();
         }
+
+        if ( canonical != null )
+        {
+            CANONICAL_PATHS.put( file, canonical );
+        }
+        return canonical;
     }
 
     /**
@@ -0,0 +1,101 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.matcher.artifact;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.artifactId;
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.classifier;
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.scope;
+import static net.flexmojos.oss.matcher.artifact.ArtifactMatcher.type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.maven.artifact.Artifact;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class ArtifactIndexTest
+{
+
+    private Artifact framework;
+
+    private Artifact rb;
+
+    private Artifact library;
+
+    private Set<Artifact> artifacts;
+
+    private ArtifactIndex index;
+
+    @BeforeMethod
+    public void createIndex()
+    {
+        framework = artifact( "framework", "swc", "rsl", null );
+        rb = artifact( "framework", "rb.swc", "compile", "en_US" );
+        library = artifact( "library", "swc", "merged", null );
+
+        artifacts = new LinkedHashSet<Artifact>();
+        artifacts.add( framework );
+        artifacts.add( rb );
+        artifacts.add( library );
+        index = new ArtifactIndex( artifacts );
+    }
+
+    private Artifact artifact( String artifactId, String type, String scope, String classifier )
+    {
+        Artifact artifact = mock( Artifact.class );
+        when( artifact.getArtifactId() ).thenReturn( artifactId );
+        when( artifact.getType() ).thenReturn( type );
+        when( artifact.getScope() ).thenReturn( scope );
+        when( artifact.getClassifier() ).thenReturn( classifier );
+        return artifact;
+    }
+
+    private List<Artifact> list( Set<Artifact> artifacts )
+    {
+        return new ArrayList<Artifact>( artifacts );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void selectIndexed()
+    {
+        assertThat( list( index.select( type( "swc" ) ) ), equalTo( Arrays.asList( framework, library ) ) );
+        assertThat( list( index.select( type( "swc" ), scope( "merged" ) ) ), equalTo( Arrays.asList( library ) ) );
+        assertThat( list( index.select( classifier( "en_US" ) ) ), equalTo( Arrays.asList( rb ) ) );
+        assertThat( index.select( type( "swf" ) ).isEmpty(), equalTo( true ) );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Test
+    public void selectNotIndexed()
+    {
+        assertThat( list( index.select( artifactId( "framework" ) ) ), equalTo( Arrays.asList( framework, rb ) ) );
+        assertThat( index.selectFirst( artifactId( "framework" ), type( "rb.swc" ) ), equalTo( rb ) );
+        assertThat( index.selectFirst( artifactId( "other" ) ), nullValue() );
+    }
+
+}
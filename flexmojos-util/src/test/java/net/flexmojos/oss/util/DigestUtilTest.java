@@ -0,0 +1,73 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.testng.annotations.Test;
+
+public class DigestUtilTest
+{
+
+    private static final String ABC_SHA_256 = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+    @Test
+    public void stringHash()
+    {
+        assertThat( DigestUtil.sha256( "abc" ), equalTo( ABC_SHA_256 ) );
+    }
+
+    @Test
+    public void fileHash()
+        throws IOException
+    {
+        File file = File.createTempFile( "digest", ".txt" );
+        file.deleteOnExit();
+        OutputStream out = new FileOutputStream( file );
+        try
+        {
+            out.write( "abc".getBytes( "UTF-8" ) );
+        }
+        finally
+        {
+            out.close();
+        }
+
+        assertThat( DigestUtil.sha256( file ), equalTo( ABC_SHA_256 ) );
+    }
+
+    @Test
+    public void copyHash()
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        String hash = DigestUtil.copy( new ByteArrayInputStream( "abc".getBytes( "UTF-8" ) ), out );
+
+        assertThat( hash, equalTo( ABC_SHA_256 ) );
+        assertThat( out.toString( "UTF-8" ), equalTo( "abc" ) );
+    }
+
+}
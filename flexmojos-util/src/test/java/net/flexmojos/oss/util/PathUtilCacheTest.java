@@ -0,0 +1,143 @@
+/**
+ * Flexmojos is a set of maven goals to allow maven users to compile, optimize and test Flex SWF, Flex SWC, Air SWF and Air SWC.
+ * Copyright (C) 2008-2012  Marvin Froeder <marvin@flexmojos.net>
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.flexmojos.oss.util;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+public class PathUtilCacheTest
+{
+
+    private static final int ENTRIES = 2000;
+
+    private static final int COMPILES = 20;
+
+    private static int canonicalizations;
+
+    /**
+     * Counts the calls that end up on the file system, File.getCanonicalFile() goes through getCanonicalPath()
+     */
+    private static class CountingFile
+        extends File
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        public CountingFile( File parent, String child )
+        {
+            super( parent, child );
+        }
+
+        @Override
+        public String getCanonicalPath()
+            throws IOException
+        {
+            canonicalizations++;
+            return super.getCanonicalPath();
+        }
+    }
+
+    private List<File> libraryPath;
+
+    @BeforeMethod
+    public void createLibraryPath()
+    {
+        File repository = new File( "target/path-cache/repository" ).getAbsoluteFile();
+        libraryPath = new ArrayList<File>();
+        for ( int i = 0; i < ENTRIES; i++ )
+        {
+            libraryPath.add( new CountingFile( repository, "group/lib" + i + "/1.0/lib" + i + "-1.0.swc" ) );
+        }
+
+        PathUtil.clearCache();
+        canonicalizations = 0;
+    }
+
+    @Test
+    public void canonicalizesOncePerPath()
+    {
+        for ( int i = 0; i < COMPILES; i++ )
+        {
+            PathUtil.paths( libraryPath );
+            for ( File file : libraryPath )
+            {
+                PathUtil.file( file );
+            }
+        }
+
+        // once for paths and once for files, instead of once per call on every compile
+        assertThat( canonicalizations, equalTo( 2 * ENTRIES ) );
+    }
+
+    @Test
+    public void invalidate()
+    {
+        File dir = new File( "target/path-cache/unpacked" ).getAbsoluteFile();
+        File file = new CountingFile( dir, "catalog.xml" );
+
+        PathUtil.file( file );
+        PathUtil.file( file );
+        assertThat( canonicalizations, equalTo( 1 ) );
+
+        PathUtil.invalidate( dir );
+        PathUtil.file( file );
+        assertThat( canonicalizations, equalTo( 2 ) );
+
+        PathUtil.clearCache();
+        PathUtil.file( file );
+        assertThat( canonicalizations, equalTo( 3 ) );
+    }
+
+    @Test
+    public void invalidateKeepsSiblings()
+    {
+        File dir = new File( "target/path-cache/unpacked" ).getAbsoluteFile();
+        File sibling = new CountingFile( new File( "target/path-cache/unpacked-2" ).getAbsoluteFile(), "catalog.xml" );
+
+        PathUtil.file( sibling );
+        PathUtil.invalidate( dir );
+        PathUtil.file( sibling );
+        assertThat( canonicalizations, equalTo( 1 ) );
+    }
+
+    @Test
+    public void scopedByBuild()
+    {
+        Object build = new Object();
+        File file = new CountingFile( new File( "target/path-cache/unpacked" ).getAbsoluteFile(), "catalog.xml" );
+
+        PathUtil.scope( build );
+        PathUtil.file( file );
+        PathUtil.scope( build );
+        PathUtil.file( file );
+        assertThat( canonicalizations, equalTo( 1 ) );
+
+        PathUtil.scope( new Object() );
+        PathUtil.file( file );
+        assertThat( canonicalizations, equalTo( 2 ) );
+    }
+
+}